@@ -0,0 +1,149 @@
+package com.ReviveFitness.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal SMTP sink for the "local" profile (see application-local.properties).
+ *
+ * Accepts every message on the loopback interface and only logs sender, recipients and
+ * subject, so the email outbox can be exercised end to end without a real mail account.
+ * No AUTH, no STARTTLS, no delivery.
+ */
+@Component
+@Profile("local")
+public class LocalSmtpServer {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalSmtpServer.class);
+
+    private final int port;
+    private final Thread.Builder sessionThreads;
+    private final AtomicLong received = new AtomicLong();
+    private ServerSocket serverSocket;
+
+    public LocalSmtpServer(@Value("${local.smtp.port:2525}") int port,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.port = port;
+        this.sessionThreads = virtualThreads
+            ? Thread.ofVirtual().name("local-smtp-session-", 1)
+            : Thread.ofPlatform().name("local-smtp-session-", 1).daemon();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Thread acceptor = new Thread(this::acceptLoop, "local-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Local SMTP stand-in listening on port {}", port);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessionThreads.start(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Local SMTP accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            reply(out, "220 localhost ESMTP stand-in");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost\r\n250 8BITMIME");
+                } else if (command.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (command.startsWith("MAIL FROM:")) {
+                    from = line.substring("MAIL FROM:".length()).trim();
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO:")) {
+                    recipients.add(line.substring("RCPT TO:".length()).trim());
+                    reply(out, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    String subject = readData(in);
+                    received.incrementAndGet();
+                    log.info("Local SMTP accepted mail from {} to {}: {}", from, recipients, subject);
+                    reply(out, "250 OK queued");
+                } else if (command.equals("RSET")) {
+                    from = null;
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.equals("NOOP")) {
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Local SMTP session ended", e);
+        }
+    }
+
+    // Reads the message up to the lone "." and returns its Subject header
+    private static String readData(BufferedReader in) throws IOException {
+        String subject = null;
+        boolean inHeaders = true;
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            if (line.isEmpty()) {
+                inHeaders = false;
+            } else if (inHeaders && subject == null && line.regionMatches(true, 0, "Subject:", 0, 8)) {
+                subject = line.substring(8).trim();
+            }
+        }
+        return subject;
+    }
+
+    private static void reply(Writer out, String response) throws IOException {
+        out.write(response);
+        out.write("\r\n");
+        out.flush();
+    }
+}
@@ -1,13 +1,19 @@
 package com.ReviveFitness.config;
 
 import com.ReviveFitness.security.JwtAuthenticationFilter;
+import com.ReviveFitness.security.JwtProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import org.springframework.web.cors.CorsConfiguration;
@@ -15,10 +21,14 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Configuration
 public class SecurityConfig {
 
+    private static final String MEMBER_HOME = "/api/members/{memberId}/home";
+
     @Autowired
     private JwtAuthenticationFilter jwtFilter;
 
@@ -28,9 +38,18 @@ public class SecurityConfig {
           .csrf(csrf -> csrf.disable())
           .cors(cors -> cors.configurationSource(corsConfigurationSource()))
           .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+          // keep JwtAuthenticationFilter.shouldNotFilter in sync with the permitAll rules below
           .authorizeHttpRequests(auth -> auth
               // still allow login without a token
               .requestMatchers("/api/admin/login", "/api/members/login").permitAll()
+              // dashboard, stats and the rollup rebuild: admin tokens only, reads included
+              .requestMatchers("/api/admin/**").hasRole(JwtProvider.ROLE_ADMIN)
+              // bulk email goes to real members: admin tokens only, reads included
+              .requestMatchers("/api/campaigns", "/api/campaigns/**").hasRole(JwtProvider.ROLE_ADMIN)
+              // pinning report names our internals and DELETE wipes it: admins only
+              .requestMatchers("/actuator/pinning", "/actuator/pinning/**").hasRole(JwtProvider.ROLE_ADMIN)
+              // a member's home has their email and check-ins: only that member, or an admin
+              .requestMatchers(HttpMethod.GET, MEMBER_HOME).access(SecurityConfig::memberSelfOrAdmin)
               // allow all GET calls under /api/** so your front end can read attendance/program data
               .requestMatchers(HttpMethod.GET, "/api/**").permitAll()
               // everything else (POST/DELETE/etc) still needs auth
@@ -41,12 +60,29 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Member tokens carry the member id as their subject
+    private static AuthorizationDecision memberSelfOrAdmin(Supplier<Authentication> authentication,
+                                                          RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return new AuthorizationDecision(false);
+        }
+        Set<String> roles = AuthorityUtils.authorityListToSet(auth.getAuthorities());
+        if (roles.contains("ROLE_" + JwtProvider.ROLE_ADMIN)) {
+            return new AuthorizationDecision(true);
+        }
+        boolean self = roles.contains("ROLE_" + JwtProvider.ROLE_MEMBER)
+            && auth.getName().equals(context.getVariables().get("memberId"));
+        return new AuthorizationDecision(self);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(List.of("http://localhost:5173"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of("X-Next-Cursor", "ETag"));
         config.setAllowCredentials(true);
 
         var source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,165 @@
+package com.ReviveFitness.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where virtual threads get pinned to their carrier, from JFR's jdk.VirtualThreadPinned events.
+ *
+ * An in-process JFR stream records every pin longer than diagnostics.pinning.threshold; pins are
+ * grouped by the first frame in our own code (the call that led into the blocking section) and
+ * served at /actuator/pinning, worst total time first. DELETE on the endpoint starts over.
+ * Both need an admin token (SecurityConfig).
+ * On by default whenever spring.threads.virtual.enabled is.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnExpression("${diagnostics.pinning.enabled:${spring.threads.virtual.enabled:false}}")
+public class VirtualThreadPinningEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningEndpoint.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.ReviveFitness.";
+    private static final int STACK_DEPTH = 12;
+    // Distinct sites kept; anything beyond is counted under OTHER_SITE
+    private static final int MAX_SITES = 200;
+    private static final String OTHER_SITE = "(other)";
+
+    private static final class PinSite {
+        final List<String> stack;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        PinSite(List<String> stack) {
+            this.stack = stack;
+        }
+    }
+
+    private final Duration threshold;
+    private final Timer pinned;
+    private final Map<String, PinSite> sites = new ConcurrentHashMap<>();
+    private volatile Instant since = Instant.now();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningEndpoint(MeterRegistry meterRegistry,
+                                        @Value("${diagnostics.pinning.threshold:PT0.02S}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier longer than diagnostics.pinning.threshold")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Recording virtual thread pinning over {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<PinSite> ordered = new ArrayList<>(sites.values());
+        ordered.sort(Comparator.comparingLong((PinSite s) -> s.totalNanos.sum()).reversed());
+
+        List<Map<String, Object>> rows = new ArrayList<>(ordered.size());
+        for (PinSite site : ordered) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", site.count.sum());
+            row.put("totalMs", site.totalNanos.sum() / 1_000_000);
+            row.put("maxMs", site.maxNanos.get() / 1_000_000);
+            row.put("stack", site.stack);
+            rows.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("since", since);
+        report.put("thresholdMs", threshold.toMillis());
+        report.put("sites", rows);
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sites.clear();
+        since = Instant.now();
+    }
+
+    // Runs on the JFR stream's own thread
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        pinned.record(event.getDuration());
+
+        List<String> stack = stackOf(event.getStackTrace());
+        String key = siteKey(stack);
+        PinSite site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= MAX_SITES) {
+                key = OTHER_SITE;
+            } else {
+                log.warn("Virtual thread pinned for {} ms at {}", nanos / 1_000_000, key);
+            }
+            site = sites.computeIfAbsent(key, k -> new PinSite(stack));
+        }
+        site.count.increment();
+        site.totalNanos.add(nanos);
+        site.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static List<String> stackOf(RecordedStackTrace trace) {
+        if (trace == null) {
+            return List.of();
+        }
+        List<String> frames = new ArrayList<>(STACK_DEPTH);
+        for (RecordedFrame frame : trace.getFrames()) {
+            if (frames.size() == STACK_DEPTH) {
+                break;
+            }
+            frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber());
+        }
+        return List.copyOf(frames);
+    }
+
+    // The first frame in our code; the pin itself is usually deep inside a library
+    private static String siteKey(List<String> stack) {
+        for (String frame : stack) {
+            if (frame.startsWith(APP_PACKAGE)) {
+                return frame;
+            }
+        }
+        return stack.isEmpty() ? "(no stack)" : stack.get(0);
+    }
+}
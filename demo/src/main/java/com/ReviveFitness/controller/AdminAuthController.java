@@ -1,6 +1,7 @@
 package com.ReviveFitness.controller;
 
 import com.ReviveFitness.dto.AdminLoginRequest;
+import com.ReviveFitness.exception.ServiceBusyException;
 import com.ReviveFitness.model.Admin;
 import com.ReviveFitness.security.JwtProvider;
 import com.ReviveFitness.service.AdminService;
@@ -30,7 +31,7 @@ public class AdminAuthController {
             );
 
             // 2) issue JWT
-            String token = jwtProvider.generateToken(admin.getAdminId());
+            String token = jwtProvider.generateToken(admin.getAdminId(), JwtProvider.ROLE_ADMIN);
 
             // 3) update last-login timestamp
             adminService.updateLastLogin(admin.getId());
@@ -46,6 +47,9 @@ public class AdminAuthController {
             return ResponseEntity
                 .status(HttpStatus.UNAUTHORIZED)
                 .body(Map.of("error", ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            // hashing pool saturated → 503 (GlobalExceptionHandler adds Retry-After)
+            throw ex;
         } catch (Exception ex) {
             // any other error → 500
             return ResponseEntity
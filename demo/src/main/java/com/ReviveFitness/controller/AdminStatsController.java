@@ -0,0 +1,57 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.dto.AttendanceStatDTO;
+import com.ReviveFitness.model.AttendanceRollup;
+import com.ReviveFitness.service.AdminService;
+import com.ReviveFitness.service.AttendanceRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RestController
+@RequestMapping("/api/admin")
+public class AdminStatsController {
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboard() {
+        return ResponseEntity.ok(adminService.getDashboardStats());
+    }
+
+    // Check-in counts per hour or day, served from the rollup table.
+    // Defaults to the last 7 days (hour) or the last 90 days (day).
+    @GetMapping("/stats/attendance")
+    public ResponseEntity<List<AttendanceStatDTO>> getAttendanceStats(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long memberId) {
+        AttendanceRollup.Granularity g;
+        try {
+            g = AttendanceRollup.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+            : (g == AttendanceRollup.Granularity.HOUR ? end.minusDays(7) : end.minusDays(90));
+        return ResponseEntity.ok(attendanceRollupService.getStats(g, start, end, memberId));
+    }
+
+    @PostMapping("/stats/attendance/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildAttendanceStats() {
+        attendanceRollupService.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Attendance rollups rebuilt"));
+    }
+}
@@ -1,14 +1,24 @@
 package com.ReviveFitness.controller;
 
+import com.ReviveFitness.dto.CheckInReceiptDTO;
+import com.ReviveFitness.exception.ServiceBusyException;
 import com.ReviveFitness.model.Attendance;
+import com.ReviveFitness.service.AttendanceExportService;
 import com.ReviveFitness.service.AttendanceService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @CrossOrigin(origins = "http://localhost:5173")
@@ -19,9 +29,48 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private AttendanceExportService attendanceExportService;
+
+    @Value("${attendance.export.timeout:PT10M}")
+    private Duration exportTimeout;
+
+    // Keyset pagination: pass the X-Next-Cursor value back as ?after= to get the next page
     @GetMapping
-    public List<Attendance> getAllAttendance() {
-        return attendanceService.getAllAttendance();
+    public ResponseEntity<List<Attendance>> getAllAttendance(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "500") int limit) {
+        int size = AttendanceService.pageSize(limit);
+        List<Attendance> page = attendanceService.getAttendancePage(after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        // A full page means there may be more rows
+        if (page.size() == size) {
+            response.header("X-Next-Cursor", String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    // Full export, streamed row by row as NDJSON (default) or CSV.
+    // Its own async timeout (attendance.export.timeout), since a big export outlives the default one.
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportAttendance(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long memberId,
+            HttpServletResponse response) {
+        AttendanceExportService.Format fmt;
+        try {
+            fmt = AttendanceExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + format);
+        }
+        response.setContentType(fmt == AttendanceExportService.Format.CSV ? "text/csv" : "application/x-ndjson");
+        response.setHeader("Content-Disposition", "attachment; filename=\"attendance." + format.toLowerCase() + "\"");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            attendanceExportService.export(fmt, from, to, memberId, response.getOutputStream());
+            return null;
+        });
     }
 
     @GetMapping("/{id}")
@@ -30,9 +79,21 @@ public class AttendanceController {
         return attendance.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Newest first; pass X-Next-Cursor back as ?cursor= for the next (older) page
     @GetMapping("/member/{memberId}")
-    public List<Attendance> getAttendanceByMember(@PathVariable Long memberId) {
-        return attendanceService.getAttendanceByMemberId(memberId);
+    public ResponseEntity<List<Attendance>> getAttendanceByMember(
+            @PathVariable Long memberId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        int size = AttendanceService.pageSize(limit);
+        List<Attendance> page = attendanceService.getAttendanceByMemberId(memberId, from, to, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == size) {
+            response.header("X-Next-Cursor", AttendanceService.cursorOf(page.get(page.size() - 1)));
+        }
+        return response.body(page);
     }
 
     public static class AttendanceCreateRequest {
@@ -47,19 +108,39 @@ public class AttendanceController {
         }
     }
 
+    // 202 when the check-in was queued for the background writer, 201 when it was saved inline,
+    // 200 when it repeats a check-in from the same member inside the de-duplication window
     @PostMapping
-    public ResponseEntity<Attendance> createAttendance(@Valid @RequestBody AttendanceCreateRequest req) {
+    public ResponseEntity<CheckInReceiptDTO> createAttendance(
+            @Valid @RequestBody AttendanceCreateRequest req,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         if (req.getMemberId() == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
         try {
-            Attendance created = attendanceService.createAttendance(req.getMemberId());
-            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+            CheckInReceiptDTO receipt = attendanceService.checkIn(req.getMemberId(), idempotencyKey);
+            HttpStatus status = "DUPLICATE".equals(receipt.getStatus()) ? HttpStatus.OK
+                : receipt.getId() == null ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(receipt);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    @PostMapping("/check-out")
+    public ResponseEntity<Map<String, String>> checkOut(@RequestBody AttendanceCreateRequest req) {
+        if (req.getMemberId() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (!attendanceService.checkOut(req.getMemberId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("message", "No open check-in for member " + req.getMemberId()));
+        }
+        return ResponseEntity.ok(Map.of("message", "Checked out"));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAttendance(@PathVariable Long id) {
         try {
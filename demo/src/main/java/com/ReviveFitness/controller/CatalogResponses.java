@@ -0,0 +1,117 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import com.ReviveFitness.service.CatalogSnapshotService;
+import com.ReviveFitness.service.CatalogSnapshotService.JsonSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Conditional-GET handling for the public catalog endpoints.
+ *
+ * ETags come from the shared catalog section versions, so every node tags the same data the
+ * same way and If-None-Match is answered with a 304 before anything is loaded or serialized.
+ */
+final class CatalogResponses {
+
+    // Clients may keep a copy but must revalidate it each time
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private CatalogResponses() {
+    }
+
+    /**
+     * Pre-encoded listing of a section, using the gzip copy when the client accepts it.
+     */
+    static ResponseEntity<byte[]> listing(WebRequest request, CatalogSnapshotService catalog, Section section) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = variant(catalog.etag(section), gzip);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        JsonSnapshot snapshot = catalog.getSnapshot(section);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(variant(snapshot.getEtag(), gzip))
+            .cacheControl(CACHE_CONTROL)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return response.body(snapshot.getJson());
+    }
+
+    /**
+     * 304 if the client already has {@code etag}; otherwise the loaded response, tagged with
+     * {@code etag} when it is a success. The ETag must be read before loading, so a write that
+     * lands in between only makes the client download again.
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<ResponseEntity<T>> load) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        ResponseEntity<T> response = load.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .eTag(etag)
+            .cacheControl(CACHE_CONTROL)
+            .body(response.getBody());
+    }
+
+    // gzip (or x-gzip) listed with q > 0, or "*" with q > 0 when gzip isn't listed; "gzip;q=0" refuses it
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double wildcardQ = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double q = qValue(fields);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return wildcardQ != null && wildcardQ > 0;
+    }
+
+    // q defaults to 1; a malformed value counts as 0 so we never compress against the client's wishes
+    private static double qValue(String[] fields) {
+        for (int i = 1; i < fields.length; i++) {
+            String param = fields[i].trim();
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Strong ETags must differ between the plain and gzip representations
+    private static String variant(String etag, boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+    }
+}
@@ -3,6 +3,7 @@ package com.ReviveFitness.controller;
 import com.ReviveFitness.dto.ContactFormRequest;
 import com.ReviveFitness.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -35,11 +36,12 @@ public class ContactController {
                 contactRequest.getMessage()
             );
 
-            emailService.sendSimpleMessage(toEmail, subject, emailBody);
+            // Only queued here; EmailOutboxWorker delivers it, so a slow SMTP server can't stall the request
+            emailService.queueMessage(toEmail, subject, emailBody, EmailService.PRIORITY_HIGH);
 
-            return ResponseEntity.ok(Map.of("message", "Message sent successfully!"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Message sent successfully!"));
         } catch (Exception e) {
-            System.err.println("Error sending email: " + e.getMessage());
+            System.err.println("Error queueing email: " + e.getMessage());
             return ResponseEntity.status(500).body(Map.of("message", "Failed to send message. Please try again later."));
         }
     }
@@ -1,12 +1,20 @@
 package com.ReviveFitness.controller;
 
+import com.ReviveFitness.dto.BulkEnrollmentRequest;
+import com.ReviveFitness.dto.BulkEnrollmentResultDTO;
 import com.ReviveFitness.dto.CurrentChallengeDTO;
+import com.ReviveFitness.dto.LeaderboardDTO;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
 import com.ReviveFitness.model.CurrentChallenge;
+import com.ReviveFitness.service.CatalogSnapshotService;
 import com.ReviveFitness.service.CurrentChallengeService;
+import com.ReviveFitness.service.LeaderboardService;
+import com.ReviveFitness.service.MemberService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,32 +27,45 @@ public class CurrentChallengeController {
     @Autowired
     private CurrentChallengeService currentChallengeService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     // Get all challenges as DTOs
     @GetMapping("/all")
-    public ResponseEntity<List<CurrentChallengeDTO>> getAllChallenges() {
-        List<CurrentChallengeDTO> dtos = currentChallengeService.getAllChallenges()
-            .stream()
-            .map(c -> new CurrentChallengeDTO(
-                c.getId(),
-                c.getTitle(),
-                c.getDescription(),
-                c.getImageUrl()
-            ))
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<CurrentChallengeDTO>> getAllChallenges(WebRequest request) {
+        return CatalogResponses.conditional(request, catalogSnapshotService.etag(Section.CHALLENGES), () -> {
+            List<CurrentChallengeDTO> dtos = currentChallengeService.getAllChallenges()
+                .stream()
+                .map(c -> new CurrentChallengeDTO(
+                    c.getId(),
+                    c.getTitle(),
+                    c.getDescription(),
+                    c.getImageUrl()
+                ))
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
 
     // Get the current/active challenge as DTO
     @GetMapping
-    public ResponseEntity<CurrentChallengeDTO> getCurrentChallenge() {
-        CurrentChallenge challenge = currentChallengeService.getOrCreateCurrentChallenge();
-        CurrentChallengeDTO dto = new CurrentChallengeDTO(
-            challenge.getId(),
-            challenge.getTitle(),
-            challenge.getDescription(),
-            challenge.getImageUrl()
-        );
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<CurrentChallengeDTO> getCurrentChallenge(WebRequest request) {
+        return CatalogResponses.conditional(request, catalogSnapshotService.etag(Section.CHALLENGES), () -> {
+            CurrentChallenge challenge = currentChallengeService.getOrCreateCurrentChallenge();
+            CurrentChallengeDTO dto = new CurrentChallengeDTO(
+                challenge.getId(),
+                challenge.getTitle(),
+                challenge.getDescription(),
+                challenge.getImageUrl()
+            );
+            return ResponseEntity.ok(dto);
+        });
     }
 
     // Create new challenge (returns DTO)
@@ -90,6 +111,22 @@ public class CurrentChallengeController {
         }
     }
 
+    // Enroll many members in this challenge; body {"ids": [memberId, ...]}
+    @PostMapping("/{id}/participants")
+    public ResponseEntity<BulkEnrollmentResultDTO> addParticipants(
+            @PathVariable Long id,
+            @RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(memberService.enrollMembersInChallenge(id, request.getIds()));
+    }
+
+    // Participants ranked by check-ins during the challenge window
+    @GetMapping("/{id}/leaderboard")
+    public ResponseEntity<LeaderboardDTO> getLeaderboard(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(id, limit));
+    }
+
     // Set a challenge as the current/active one (returns DTO)
     @PutMapping("/{id}/set-current")
     public ResponseEntity<CurrentChallengeDTO> setAsCurrentChallenge(@PathVariable Long id) {
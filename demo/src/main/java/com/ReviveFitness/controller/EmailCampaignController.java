@@ -0,0 +1,35 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.dto.EmailCampaignDTO;
+import com.ReviveFitness.dto.EmailCampaignRequest;
+import com.ReviveFitness.service.EmailCampaignService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RestController
+@RequestMapping("/api/campaigns")
+public class EmailCampaignController {
+
+    @Autowired
+    private EmailCampaignService campaignService;
+
+    // Email every participant of a challenge or member of a program; delivery happens in the background
+    @PostMapping
+    public ResponseEntity<EmailCampaignDTO> createCampaign(@RequestBody EmailCampaignRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(campaignService.createCampaign(request));
+    }
+
+    // Progress: queued / sent / pending / failed counts
+    @GetMapping("/{id}")
+    public ResponseEntity<EmailCampaignDTO> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.getProgress(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<EmailCampaignDTO> cancelCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.cancel(id));
+    }
+}
@@ -25,8 +25,8 @@ public class MemberAuthController {
             // authenticate or throw
             Member m = memberService.authenticate(req.getEmail(), req.getPassword());
 
-            // issue a JWT—using email as the subject
-            String token = jwtProvider.generateToken(m.getEmail());
+            // issue a JWT—using the member id as the subject, so per-member routes can check it
+            String token = jwtProvider.generateToken(String.valueOf(m.getId()), JwtProvider.ROLE_MEMBER);
 
             // update last login timestamp (optional)
             memberService.updateLastLogin(m.getId());
@@ -1,22 +1,27 @@
 package com.ReviveFitness.controller;
 
+import com.ReviveFitness.dto.BulkEnrollmentRequest;
+import com.ReviveFitness.dto.BulkEnrollmentResultDTO;
 import com.ReviveFitness.dto.MemberDTO;
+import com.ReviveFitness.dto.MemberHomeDTO;
 import com.ReviveFitness.dto.ProgramDTO;
 import com.ReviveFitness.dto.CurrentChallengeDTO;
 import com.ReviveFitness.model.Member;
-import com.ReviveFitness.repository.MemberRepository;
+import com.ReviveFitness.service.MemberHomeService;
 import com.ReviveFitness.service.MemberService;
 
+import jakarta.persistence.EntityNotFoundException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -27,7 +32,7 @@ public class MemberController {
     private MemberService memberService;
 
     @Autowired
-    private MemberRepository memberRepository;
+    private MemberHomeService memberHomeService;
 
 
     // ==== LOGIN ====
@@ -39,11 +44,10 @@ public class MemberController {
 
     // @PostMapping("/login")
     public ResponseEntity<MemberDTO> login(@RequestBody LoginRequest req) {
-        Member m = memberRepository.findByEmail(req.email)
-            .orElseThrow(() -> new ResponseStatusException(
-                HttpStatus.UNAUTHORIZED, "Invalid email or password"));
-
-        if (!m.getPassword().equals(req.password)) {
+        Member m;
+        try {
+            m = memberService.authenticate(req.email, req.password);
+        } catch (BadCredentialsException e) {
             throw new ResponseStatusException(
                 HttpStatus.UNAUTHORIZED, "Invalid email or password");
         }
@@ -58,6 +62,15 @@ public class MemberController {
     }
 
 
+    // ==== HOME ====
+
+    // Profile, programs, challenges and recent check-ins in one round trip
+    @GetMapping("/{memberId}/home")
+    public ResponseEntity<MemberHomeDTO> getHome(@PathVariable Long memberId) {
+      return ResponseEntity.ok(memberHomeService.getHome(memberId));
+    }
+
+
     // ==== PROGRAMS ====
 
     @PostMapping("/{memberId}/programs/{programId}")
@@ -68,6 +81,14 @@ public class MemberController {
       return ResponseEntity.ok().build();
     }
 
+    // Enroll in several programs at once; body {"ids": [programId, ...]}
+    @PostMapping("/{memberId}/programs")
+    public ResponseEntity<BulkEnrollmentResultDTO> enrollInPrograms(
+        @PathVariable Long memberId,
+        @RequestBody BulkEnrollmentRequest request) {
+      return ResponseEntity.ok(memberService.enrollMemberInPrograms(memberId, request.getIds()));
+    }
+
     @DeleteMapping("/{memberId}/programs/{programId}")
     public ResponseEntity<Void> leaveProgram(
         @PathVariable Long memberId,
@@ -78,18 +99,10 @@ public class MemberController {
 
     @GetMapping("/{memberId}/programs")
     public ResponseEntity<List<ProgramDTO>> listMemberPrograms(
-        @PathVariable Long memberId) {
-      List<ProgramDTO> dtos = memberService.getMemberPrograms(memberId).stream()
-        .map(p -> new ProgramDTO(
-            p.getId(),
-            p.getName(),
-            p.getDescription(),
-            p.getImageUrl(),
-            p.getDuration(),
-            p.getBenefits()
-        ))
-        .collect(Collectors.toList());
-      return ResponseEntity.ok(dtos);
+        @PathVariable Long memberId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "100") int size) {
+      return ResponseEntity.ok(memberService.getMemberPrograms(memberId, page, size));
     }
 
 
@@ -113,16 +126,10 @@ public class MemberController {
 
     @GetMapping("/{memberId}/challenges")
     public ResponseEntity<List<CurrentChallengeDTO>> listMemberChallenges(
-        @PathVariable Long memberId) {
-      List<CurrentChallengeDTO> dtos = memberService.getMemberChallenges(memberId).stream()
-        .map(c -> new CurrentChallengeDTO(
-            c.getId(),
-            c.getTitle(),
-            c.getDescription(),
-            c.getImageUrl()
-        ))
-        .collect(Collectors.toList());
-      return ResponseEntity.ok(dtos);
+        @PathVariable Long memberId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "100") int size) {
+      return ResponseEntity.ok(memberService.getMemberChallenges(memberId, page, size));
     }
 
 
@@ -135,9 +142,13 @@ public class MemberController {
         try {
             String photoUrl = memberService.saveProfilePhoto(id, file);
             return ResponseEntity.ok(Map.of("photoUrl", photoUrl));
-        } catch (ResponseStatusException e) {
+        } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                                 .body(Map.of("message", e.getReason()));
+                                 .body(Map.of("message", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            // Not an accepted image type, or too large
+            return ResponseEntity.badRequest()
+                                 .body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body(Map.of("message", "Failed to upload photo"));
@@ -0,0 +1,29 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.dto.OccupancyDTO;
+import com.ReviveFitness.service.OccupancyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RestController
+@RequestMapping("/api/occupancy")
+public class OccupancyController {
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @GetMapping
+    public ResponseEntity<OccupancyDTO> getOccupancy() {
+        return ResponseEntity.ok(occupancyService.getOccupancy());
+    }
+
+    // Server-sent events: one "occupancy" event on connect and after every change
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOccupancy() {
+        return occupancyService.subscribe();
+    }
+}
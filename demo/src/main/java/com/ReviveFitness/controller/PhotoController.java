@@ -0,0 +1,179 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.service.PhotoStorageService;
+import com.ReviveFitness.service.PhotoVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves stored profile photos. File names are content hashes, so a URL always means the same
+ * bytes: responses are cacheable for a year and the hash doubles as the ETag.
+ *
+ * {@code ?size=N} asks for a square JPEG thumbnail instead. While that variant is still being
+ * made the original is returned with {@code no-cache}, so clients pick up the thumbnail later.
+ */
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RestController
+@RequestMapping("/api/photos")
+public class PhotoController {
+
+    private static final String CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    // Set by Tomcat's NIO connector when it can send a file straight from the page cache
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private PhotoStorageService photoStorage;
+
+    @Autowired
+    private PhotoVariantService photoVariants;
+
+    @GetMapping("/{name}")
+    public void getPhoto(@PathVariable String name,
+                         @RequestParam(required = false) Integer size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<Path> stored = photoStorage.resolve(name);
+        if (stored.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String hash = name.substring(0, name.indexOf('.'));
+        String cacheControl = CACHE_CONTROL;
+        if (size != null && size > 0) {
+            int variantSize = photoVariants.pickSize(size);
+            Optional<byte[]> variant = photoVariants.get(name, variantSize);
+            if (variant.isPresent()) {
+                sendVariant(variant.get(), "\"" + hash + "-" + variantSize + "\"", request, response);
+                return;
+            }
+            cacheControl = CacheControl.noCache().getHeaderValue();
+        }
+        Path path = stored.get();
+        String etag = "\"" + hash + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(path)) {
+            long fileSize = file.size();
+            long start = 0;
+            long end = fileSize - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            if (range != null) {
+                long[] bounds = parseRange(range, fileSize);
+                if (bounds == null) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (bounds.length == 2) {
+                    start = bounds[0];
+                    end = bounds[1];
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+                }
+            }
+            long length = end - start + 1;
+            response.setContentType(contentType(name));
+            response.setContentLengthLong(length);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the file itself after the handler returns, kernel to socket
+                request.setAttribute(SENDFILE_FILENAME, path.toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            // No sendfile (e.g. TLS or another connector): transferTo the response stream
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += file.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    // Thumbnails are a few KB: no ranges, just the bytes from PhotoVariantService's cache
+    private static void sendVariant(byte[] bytes, String etag, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType("image/jpeg");
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /*
+     * A single "bytes=" range as {start, end} (inclusive), an empty array to ignore the header
+     * and send the whole file (multiple ranges, other units), or null if unsatisfiable.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static String contentType(String name) {
+        return switch (name.substring(name.indexOf('.') + 1)) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "image/jpeg";
+        };
+    }
+}
@@ -1,14 +1,16 @@
 package com.ReviveFitness.controller;
 
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
 import com.ReviveFitness.model.Program;
+import com.ReviveFitness.service.CatalogSnapshotService;
 import com.ReviveFitness.service.ProgramService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.validation.Valid;
 
-import java.util.List;
 import java.util.Optional;
 
 @CrossOrigin(origins = "http://localhost:5173")
@@ -19,15 +21,21 @@ public class ProgramController {
     @Autowired
     private ProgramService programService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Pre-encoded list of programs, rebuilt only after a program changes
     @GetMapping
-    public List<Program> getAllPrograms() {
-        return programService.getAllPrograms();
+    public ResponseEntity<byte[]> getAllPrograms(WebRequest request) {
+        return CatalogResponses.listing(request, catalogSnapshotService, Section.PROGRAMS);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Program> getProgramById(@PathVariable Long id) {
-        Optional<Program> program = programService.getProgramById(id);
-        return program.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Program> getProgramById(@PathVariable Long id, WebRequest request) {
+        return CatalogResponses.conditional(request, catalogSnapshotService.etag(Section.PROGRAMS), () -> {
+            Optional<Program> program = programService.getProgramById(id);
+            return program.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        });
     }
 
     @PostMapping
@@ -0,0 +1,28 @@
+package com.ReviveFitness.controller;
+
+import com.ReviveFitness.dto.SearchResultDTO;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import com.ReviveFitness.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    // Ranked programs, trainers and challenges; type narrows to one of PROGRAMS, TRAINERS, CHALLENGES
+    @GetMapping
+    public ResponseEntity<List<SearchResultDTO>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Section type,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(q, type, limit));
+    }
+}
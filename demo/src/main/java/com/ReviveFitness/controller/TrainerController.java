@@ -1,15 +1,15 @@
 package com.ReviveFitness.controller;
 
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
 import com.ReviveFitness.model.Trainer;
+import com.ReviveFitness.service.CatalogSnapshotService;
 import com.ReviveFitness.service.TrainerService;
 import com.ReviveFitness.dto.TrainerDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
-import java.util.stream.Collectors;
+import org.springframework.web.context.request.WebRequest;
 
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
 @RestController
@@ -19,21 +19,22 @@ public class TrainerController {
     @Autowired
     private TrainerService trainerService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    // Pre-encoded list of TrainerDTOs, rebuilt only after a trainer changes
     @GetMapping
-    public ResponseEntity<List<TrainerDTO>> getAllTrainers() {
-        List<Trainer> trainers = trainerService.getAllTrainers();
-        List<TrainerDTO> trainerDTOs = trainers.stream()
-            .map(trainerService::convertToDTO)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(trainerDTOs);
+    public ResponseEntity<byte[]> getAllTrainers(WebRequest request) {
+        return CatalogResponses.listing(request, catalogSnapshotService, Section.TRAINERS);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<TrainerDTO> getTrainerById(@PathVariable Long id) {
-        return trainerService.getTrainerById(id)
+    public ResponseEntity<TrainerDTO> getTrainerById(@PathVariable Long id, WebRequest request) {
+        return CatalogResponses.conditional(request, catalogSnapshotService.etag(Section.TRAINERS), () ->
+            trainerService.getTrainerById(id)
                 .map(trainerService::convertToDTO)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     @PostMapping
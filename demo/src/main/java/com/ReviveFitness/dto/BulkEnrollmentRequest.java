@@ -0,0 +1,15 @@
+package com.ReviveFitness.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Member ids for POST /api/current-challenges/{id}/participants, program ids for POST /api/members/{id}/programs
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentRequest {
+    private List<Long> ids;
+}
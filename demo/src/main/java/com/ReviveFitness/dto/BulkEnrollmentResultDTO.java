@@ -0,0 +1,19 @@
+package com.ReviveFitness.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentResultDTO {
+    // Distinct ids in the request
+    private int requested;
+    private int added;
+    private int alreadyEnrolled;
+    // Ids that matched no row and were skipped
+    private List<Long> unknownIds;
+}
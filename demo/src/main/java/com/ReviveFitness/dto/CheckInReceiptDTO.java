@@ -0,0 +1,18 @@
+package com.ReviveFitness.dto;
+
+import java.time.LocalDateTime;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckInReceiptDTO {
+    // Attendance row id; null while the check-in is still queued
+    private Long id;
+    private Long memberId;
+    private LocalDateTime checkInTime;
+    // RECORDED, QUEUED or DUPLICATE
+    private String status;
+}
@@ -0,0 +1,31 @@
+package com.ReviveFitness.dto;
+
+import com.ReviveFitness.model.EmailCampaign.Audience;
+import com.ReviveFitness.model.EmailCampaign.Status;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailCampaignDTO {
+    private Long id;
+    private Audience audience;
+    private Long audienceId;
+    private Status status;
+    private long totalRecipients;
+    // Added to the outbox so far
+    private long queued;
+    private long sent;
+    // In the outbox, not yet delivered
+    private long pending;
+    // Dead-lettered (rejected, out of retries, or cancelled)
+    private long failed;
+    // Every recipient queued and nothing left to deliver
+    private boolean done;
+    private LocalDateTime createdAt;
+    private LocalDateTime queuedAt;
+}
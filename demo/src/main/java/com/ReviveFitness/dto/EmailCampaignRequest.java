@@ -0,0 +1,17 @@
+package com.ReviveFitness.dto;
+
+import com.ReviveFitness.model.EmailCampaign.Audience;
+import lombok.*;
+
+// Body of POST /api/campaigns; subject and body may use {{name}}, {{email}} and {{title}}
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailCampaignRequest {
+    private Audience audience;
+    private Long audienceId;
+    private String subject;
+    private String body;
+}
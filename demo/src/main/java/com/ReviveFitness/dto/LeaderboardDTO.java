@@ -0,0 +1,18 @@
+package com.ReviveFitness.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaderboardDTO {
+    private Long challengeId;
+    private int participantCount;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<LeaderboardEntryDTO> entries;
+}
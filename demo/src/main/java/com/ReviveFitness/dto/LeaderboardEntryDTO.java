@@ -0,0 +1,15 @@
+package com.ReviveFitness.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaderboardEntryDTO {
+    private int rank;
+    private Long memberId;
+    private String name;
+    private long checkIns;
+}
@@ -0,0 +1,22 @@
+package com.ReviveFitness.dto;
+
+import com.ReviveFitness.model.Attendance;
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberHomeDTO {
+    private MemberDTO profile;
+    private String profilePhotoUrl;
+    private List<ProgramDTO> programs;
+    private List<CurrentChallengeDTO> challenges;
+    private CurrentChallengeDTO currentChallenge;
+    // Newest first
+    private List<Attendance> recentAttendance;
+    // Parts that failed or timed out; their fields are null
+    private List<String> unavailable;
+}
@@ -0,0 +1,14 @@
+package com.ReviveFitness.dto;
+
+import java.time.LocalDateTime;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OccupancyDTO {
+    private int occupancy;
+    private LocalDateTime updatedAt;
+}
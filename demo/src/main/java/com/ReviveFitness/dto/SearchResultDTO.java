@@ -0,0 +1,17 @@
+package com.ReviveFitness.dto;
+
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchResultDTO {
+    private Section type;
+    private Long id;
+    private String title;
+    private String snippet;
+    private float score;
+}
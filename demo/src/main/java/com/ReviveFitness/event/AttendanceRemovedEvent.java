@@ -0,0 +1,15 @@
+package com.ReviveFitness.event;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that deleted an attendance row.
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceRemovedEvent {
+    private final Long memberId;
+    private final LocalDateTime checkInTime;
+}
@@ -0,0 +1,17 @@
+package com.ReviveFitness.event;
+
+import lombok.*;
+
+/**
+ * Published after a program, trainer or challenge is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+
+    public enum Section { PROGRAMS, TRAINERS, CHALLENGES }
+
+    private final Section section;
+    // Id of the changed entity
+    private final Long id;
+}
@@ -0,0 +1,12 @@
+package com.ReviveFitness.event;
+
+import lombok.*;
+
+/**
+ * Published inside the transaction that added members to, or removed them from, a challenge.
+ */
+@Getter
+@AllArgsConstructor
+public class ChallengeParticipantsChangedEvent {
+    private final Long challengeId;
+}
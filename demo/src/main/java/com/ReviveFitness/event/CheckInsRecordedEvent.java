@@ -0,0 +1,15 @@
+package com.ReviveFitness.event;
+
+import com.ReviveFitness.model.CheckIn;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that inserted the check-ins into attendance_logs.
+ */
+@Getter
+@AllArgsConstructor
+public class CheckInsRecordedEvent {
+    private final List<CheckIn> checkIns;
+}
@@ -0,0 +1,15 @@
+package com.ReviveFitness.event;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published inside the transaction that closed a member's open attendance session.
+ */
+@Getter
+@AllArgsConstructor
+public class CheckOutRecordedEvent {
+    private final Long memberId;
+    private final LocalDateTime checkOutTime;
+}
@@ -0,0 +1,12 @@
+package com.ReviveFitness.event;
+
+import lombok.*;
+
+/**
+ * Published inside the transaction that added rows to email_outbox.
+ */
+@Getter
+@AllArgsConstructor
+public class EmailQueuedEvent {
+    private final int count;
+}
@@ -20,7 +20,7 @@ public class Achievement {
     @Column(nullable = false)
     private String achievement;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trainer_id", nullable = false)
     @JsonIgnore
     private Trainer trainer;
@@ -0,0 +1,27 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single-row marker (id = 1) pointing at the challenge shown as "current".
+ * Switching the current challenge is one UPDATE of this row.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "active_challenge")
+public class ActiveChallenge {
+
+    public static final int MARKER_ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Null until a challenge is chosen, or after the active one is deleted
+    @Column(name = "challenge_id")
+    private Long challengeId;
+}
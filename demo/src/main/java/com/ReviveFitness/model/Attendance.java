@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "attendance_logs")
+@Table(
+    name = "attendance_logs",
+    indexes = @Index(name = "idx_attendance_member_time", columnList = "member_id, check_in_time")
+)
 public class Attendance {
 
     @Id
@@ -21,6 +24,9 @@ public class Attendance {
 
     private LocalDateTime checkInTime;
 
+    // Null while the member is still in the gym (or never checked out)
+    private LocalDateTime checkOutTime;
+
     @ManyToOne
     @JoinColumn(name = "member_id", nullable = false)
     @JsonIgnore // <-- This is the crucial line to add
@@ -0,0 +1,47 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated check-in counts per hour or day bucket.
+ * memberId = 0 holds the total across all members.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+    name = "attendance_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_rollup_bucket",
+        columnNames = {"granularity", "member_id", "bucket_start"}
+    )
+)
+public class AttendanceRollup {
+
+    public enum Granularity { HOUR, DAY }
+
+    public static final long ALL_MEMBERS = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "check_ins", nullable = false)
+    private long checkIns;
+}
@@ -0,0 +1,23 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single-row lock (id = 1) between rollup updates and a full rollup rebuild.
+ * Updates hold it shared until they commit; a rebuild holds it exclusively.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "attendance_rollup_guard")
+public class AttendanceRollupGuard {
+
+    public static final int GUARD_ID = 1;
+
+    @Id
+    private Integer id;
+}
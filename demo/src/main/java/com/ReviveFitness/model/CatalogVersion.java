@@ -0,0 +1,26 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Version of one catalog section (CatalogChangedEvent.Section name), shared by every node.
+ * Bumped in the transaction of each catalog write; pre-encoded listings and catalog ETags
+ * are keyed on it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "catalog_versions")
+public class CatalogVersion {
+
+    @Id
+    @Column(length = 20)
+    private String section;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -0,0 +1,21 @@
+package com.ReviveFitness.model;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A check-in accepted by the API but not necessarily written to attendance_logs yet.
+ * {@code attendanceId} is null until the row is written.
+ */
+@Getter
+@AllArgsConstructor
+public class CheckIn {
+    private final Long memberId;
+    private final LocalDateTime checkInTime;
+    private final Long attendanceId;
+
+    public CheckIn(Long memberId, LocalDateTime checkInTime) {
+        this(memberId, checkInTime, null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.ReviveFitness.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -15,6 +16,15 @@ public class CurrentChallenge {
     private String title;
     private String description;
     private String imageUrl;
+
+    // Leaderboard window, inclusive; null means open-ended on that side
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    // Maintained in SQL by MemberService on join/leave; never written through the entity
+    @Column(name = "participant_count", insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int participantCount;
     // … any other existing fields …
 
     @ManyToMany(mappedBy = "challenges")
@@ -40,6 +50,16 @@ public class CurrentChallenge {
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 
+    // startDate / endDate
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    // participantCount
+    public int getParticipantCount() { return participantCount; }
+
     // participants
     public Set<Member> getParticipants() { return participants; }
     public void setParticipants(Set<Member> participants) { this.participants = participants; }
@@ -0,0 +1,65 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk email to every participant of a challenge or every member enrolled in a program.
+ *
+ * {@code EmailCampaignService} adds recipients to email_outbox page by page; lastMemberId is
+ * the keyset cursor, committed together with each page, so a restart resumes where it stopped.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "email_campaigns")
+public class EmailCampaign {
+
+    public enum Audience { CHALLENGE, PROGRAM }
+
+    // QUEUEING: recipients still being added; QUEUED: all of them are in the outbox
+    public enum Status { QUEUEING, QUEUED, CANCELLED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Audience audience;
+
+    @Column(name = "audience_id", nullable = false)
+    private Long audienceId;
+
+    // Templates as submitted; {{name}} and {{email}} are per recipient, {{title}} is the challenge or program
+    @Column(nullable = false, length = 1000)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "last_member_id", nullable = false)
+    private long lastMemberId;
+
+    // Recipients at creation time; enrollments after that may change the final count
+    @Column(name = "total_recipients", nullable = false)
+    private long totalRecipients;
+
+    @Column(name = "queued_count", nullable = false)
+    private long queuedCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "queued_at")
+    private LocalDateTime queuedAt;
+}
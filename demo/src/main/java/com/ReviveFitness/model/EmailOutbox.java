@@ -0,0 +1,70 @@
+package com.ReviveFitness.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One outgoing email. Rows are written by {@code EmailService} and delivered by
+ * {@code EmailOutboxWorker}; SENT rows are purged after a retention period, DEAD rows are
+ * kept until someone looks at them (set status back to PENDING to retry).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+    name = "email_outbox",
+    indexes = {
+        @Index(name = "idx_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_outbox_campaign", columnList = "campaign_id, status")
+    }
+)
+public class EmailOutbox {
+
+    public enum Status { PENDING, SENDING, SENT, DEAD }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(nullable = false, length = 1000)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String body;
+
+    // Higher goes first
+    @Column(nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // When PENDING: earliest next try. When SENDING: end of the worker's lease on the row.
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Set for rows queued by an EmailCampaign
+    @Column(name = "campaign_id")
+    private Long campaignId;
+}
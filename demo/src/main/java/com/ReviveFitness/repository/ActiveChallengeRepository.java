@@ -0,0 +1,34 @@
+package com.ReviveFitness.repository;
+
+import com.ReviveFitness.model.ActiveChallenge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ActiveChallengeRepository extends JpaRepository<ActiveChallenge, Integer> {
+
+    // Creates the marker row if it is missing; a no-op otherwise, even when run concurrently
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO active_challenge (id, challenge_id) VALUES (1, NULL)", nativeQuery = true)
+    int ensureMarker();
+
+    // Locks the marker row until the surrounding transaction ends
+    @Query(value = "SELECT challenge_id FROM active_challenge WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockActiveChallengeId();
+
+    @Modifying
+    @Query(value = "INSERT INTO active_challenge (id, challenge_id) VALUES (1, :challengeId) " +
+                   "ON DUPLICATE KEY UPDATE challenge_id = VALUES(challenge_id)", nativeQuery = true)
+    int setActiveChallengeId(@Param("challengeId") Long challengeId);
+
+    @Modifying
+    @Query("UPDATE ActiveChallenge a SET a.challengeId = NULL WHERE a.challengeId = :challengeId")
+    int clearIfActive(@Param("challengeId") Long challengeId);
+}
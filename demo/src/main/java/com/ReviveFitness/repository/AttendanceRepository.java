@@ -1,12 +1,37 @@
 package com.ReviveFitness.repository;
 
 import com.ReviveFitness.model.Attendance;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
-    List<Attendance> findByMember_Id(Long memberId);
     long countByCheckInTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    // Keyset page: rows after the given id, in id order (pageable only supplies the limit)
+    List<Attendance> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Member history, newest first; both queries walk idx_attendance_member_time backwards
+    @Query("SELECT a FROM Attendance a WHERE a.member.id = :memberId " +
+           "AND a.checkInTime >= :from AND a.checkInTime < :to " +
+           "ORDER BY a.checkInTime DESC, a.id DESC")
+    List<Attendance> findMemberHistory(@Param("memberId") Long memberId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+
+    @Query("SELECT a FROM Attendance a WHERE a.member.id = :memberId " +
+           "AND a.checkInTime >= :from AND a.checkInTime < :to " +
+           "AND (a.checkInTime < :beforeTime OR (a.checkInTime = :beforeTime AND a.id < :beforeId)) " +
+           "ORDER BY a.checkInTime DESC, a.id DESC")
+    List<Attendance> findMemberHistoryBefore(@Param("memberId") Long memberId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("beforeTime") LocalDateTime beforeTime,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
 }
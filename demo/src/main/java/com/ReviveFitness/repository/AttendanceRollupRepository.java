@@ -0,0 +1,25 @@
+package com.ReviveFitness.repository;
+
+import com.ReviveFitness.model.AttendanceRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceRollupRepository extends JpaRepository<AttendanceRollup, Long> {
+
+    @Query("SELECT r FROM AttendanceRollup r " +
+           "WHERE r.granularity = :granularity AND r.memberId = :memberId " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "ORDER BY r.bucketStart")
+    List<AttendanceRollup> findRange(@Param("granularity") AttendanceRollup.Granularity granularity,
+                                     @Param("memberId") Long memberId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    Optional<AttendanceRollup> findByGranularityAndMemberIdAndBucketStart(
+        AttendanceRollup.Granularity granularity, Long memberId, LocalDateTime bucketStart);
+}
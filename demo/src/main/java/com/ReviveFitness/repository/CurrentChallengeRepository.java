@@ -1,10 +1,29 @@
 // src/main/java/com/ReviveFitness/repository/CurrentChallengeRepository.java
 package com.ReviveFitness.repository;
 
+import com.ReviveFitness.dto.CurrentChallengeDTO;
 import com.ReviveFitness.model.CurrentChallenge;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CurrentChallengeRepository extends JpaRepository<CurrentChallenge, Long> {
-}
\ No newline at end of file
+
+    // The active challenge in one primary-key lookup through the marker row
+    @Query("SELECT c FROM CurrentChallenge c WHERE c.id = " +
+           "(SELECT a.challengeId FROM ActiveChallenge a WHERE a.id = 1)")
+    Optional<CurrentChallenge> findActive();
+
+    Optional<CurrentChallenge> findFirstByOrderByIdAsc();
+
+    // Straight from member_challenges into DTOs, without loading the member or participants
+    @Query("SELECT new com.ReviveFitness.dto.CurrentChallengeDTO(c.id, c.title, c.description, c.imageUrl) " +
+           "FROM Member m JOIN m.challenges c WHERE m.id = :memberId ORDER BY c.id")
+    List<CurrentChallengeDTO> findDtosByMemberId(@Param("memberId") Long memberId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.ReviveFitness.repository;
+
+import com.ReviveFitness.model.EmailCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, Long> {
+}
@@ -1,7 +1,18 @@
 package com.ReviveFitness.repository;
 
+import com.ReviveFitness.dto.ProgramDTO;
 import com.ReviveFitness.model.Program;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ProgramRepository extends JpaRepository<Program, Long> {
+
+    // Straight from member_programs into DTOs; field order matches the member dashboard's ProgramDTO
+    @Query("SELECT new com.ReviveFitness.dto.ProgramDTO(p.id, p.name, p.description, p.imageUrl, p.duration, p.benefits) " +
+           "FROM Member m JOIN m.programs p WHERE m.id = :memberId ORDER BY p.id")
+    List<ProgramDTO> findDtosByMemberId(@Param("memberId") Long memberId, Pageable pageable);
 }
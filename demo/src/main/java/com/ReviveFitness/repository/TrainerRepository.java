@@ -2,8 +2,20 @@ package com.ReviveFitness.repository;
 
 import com.ReviveFitness.model.Trainer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TrainerRepository extends JpaRepository<Trainer, Long> {
-}
\ No newline at end of file
+
+    // Trainers and their achievements in one statement, however many trainers there are
+    @Query("SELECT DISTINCT t FROM Trainer t LEFT JOIN FETCH t.achievements ORDER BY t.id")
+    List<Trainer> findAllWithAchievements();
+
+    @Query("SELECT t FROM Trainer t LEFT JOIN FETCH t.achievements WHERE t.id = :id")
+    Optional<Trainer> findByIdWithAchievements(@Param("id") Long id);
+}
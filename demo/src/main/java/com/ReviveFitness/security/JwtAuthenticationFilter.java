@@ -1,7 +1,9 @@
 package com.ReviveFitness.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -12,12 +14,40 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Same routes SecurityConfig opens with permitAll()
+    private static final Set<String> PUBLIC_PATHS = Set.of("/api/admin/login", "/api/members/login");
+    // Admin-only in SecurityConfig, GETs included, so these always need the token checked
+    private static final List<String> ADMIN_PREFIXES = List.of("/api/campaigns", "/api/admin/");
+    // SecurityConfig lets only the member themself (or an admin) read their home
+    private static final Pattern MEMBER_HOME = Pattern.compile("/api/members/[^/]+/home");
+
     @Autowired
     private JwtProvider jwtProvider;
 
+    // Public routes never look at the principal, so don't spend time verifying a token there
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        String path = req.getServletPath();
+        if (HttpMethod.OPTIONS.matches(req.getMethod())) {
+            return true;
+        }
+        if (PUBLIC_PATHS.contains(path)) {
+            return true;
+        }
+        return HttpMethod.GET.matches(req.getMethod()) && path.startsWith("/api/") && !isProtectedGet(path);
+    }
+
+    private static boolean isProtectedGet(String path) {
+        return ADMIN_PREFIXES.stream().anyMatch(path::startsWith) || MEMBER_HOME.matcher(path).matches();
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest req,
                                     HttpServletResponse res,
@@ -25,12 +55,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = req.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
             String token = header.substring(7);
-            if (jwtProvider.validateToken(token)) {
-                String username = jwtProvider.getUsernameFromToken(token);
-                var auth = new UsernamePasswordAuthenticationToken(username, null, java.util.Collections.emptyList());
+            jwtProvider.authenticate(token).ifPresent(principal -> {
+                List<SimpleGrantedAuthority> authorities = principal.role() != null
+                    ? List.of(new SimpleGrantedAuthority("ROLE_" + principal.role()))
+                    : List.of();
+                var auth = new UsernamePasswordAuthenticationToken(principal.subject(), null, authorities);
                 auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                 SecurityContextHolder.getContext().setAuthentication(auth);
-            }
+            });
         }
         chain.doFilter(req, res);
     }
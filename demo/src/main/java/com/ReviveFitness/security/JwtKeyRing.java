@@ -0,0 +1,139 @@
+package com.ReviveFitness.security;
+
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HS256 signing keys shared by every backend node.
+ *
+ * All keys are derived from one master secret: the key for rotation period N is
+ * HMAC-SHA256(master, "kN") and "kN" goes into the token's kid header. Nodes that share the
+ * master secret (jwt.secret, or a PKCS12 keystore at jwt.keystore.path) therefore sign and
+ * verify with the same keys without talking to each other, and keep doing so across restarts.
+ * The active key rotates every jwt.rotation-period; older keys stay valid for verification
+ * until every token they signed has expired.
+ *
+ * To create a keystore:
+ * keytool -genseckey -alias jwt -keyalg HmacSHA256 -keysize 256 -storetype PKCS12 -keystore jwt.p12
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final byte[] masterSecret;
+    private final long periodMs;
+    private final int retiredPeriodsKept;
+
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(@Value("${jwt.secret:}") String secret,
+                      @Value("${jwt.keystore.path:}") String keystorePath,
+                      @Value("${jwt.keystore.password:}") String keystorePassword,
+                      @Value("${jwt.keystore.alias:jwt}") String keystoreAlias,
+                      @Value("${jwt.rotation-period:P1D}") Duration rotationPeriod,
+                      @Value("${jwt.expiration:PT24H}") Duration tokenLifetime) {
+        this.masterSecret = loadMasterSecret(secret, keystorePath, keystorePassword, keystoreAlias);
+        this.periodMs = rotationPeriod.toMillis();
+        // Keep enough old periods that a token signed at the very end of one still verifies until it expires
+        this.retiredPeriodsKept = (int) Math.ceil((double) tokenLifetime.toMillis() / periodMs) + 1;
+        this.snapshot = buildSnapshot(System.currentTimeMillis() / periodMs);
+    }
+
+    public String activeKeyId() {
+        return snapshot.activeKid();
+    }
+
+    public Key activeKey() {
+        return snapshot.keys().get(snapshot.activeKid());
+    }
+
+    /**
+     * Key for a token's kid header, or null if that key is unknown or has been retired.
+     */
+    public Key verificationKey(String kid) {
+        return kid == null ? null : snapshot.keys().get(kid);
+    }
+
+    // Cheap when nothing changed; swaps in a new key set at each period boundary
+    @Scheduled(fixedDelay = 60_000)
+    public void rotate() {
+        long period = System.currentTimeMillis() / periodMs;
+        Snapshot current = snapshot;
+        if (current.period() == period) {
+            return;
+        }
+        snapshot = buildSnapshot(period);
+        log.info("Rotated JWT signing key to {}", snapshot.activeKid());
+    }
+
+    private Snapshot buildSnapshot(long period) {
+        Map<String, Key> keys = new HashMap<>();
+        // One period ahead as well, for nodes whose clocks run slightly fast
+        for (long p = period - retiredPeriodsKept; p <= period + 1; p++) {
+            String kid = "k" + p;
+            keys.put(kid, deriveKey(kid));
+        }
+        return new Snapshot(period, "k" + period, Map.copyOf(keys));
+    }
+
+    private Key deriveKey(String kid) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(masterSecret, "HmacSHA256"));
+            return Keys.hmacShaKeyFor(mac.doFinal(kid.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive JWT key", e);
+        }
+    }
+
+    private static byte[] loadMasterSecret(String secret, String keystorePath, String password, String alias) {
+        if (StringUtils.hasText(secret)) {
+            byte[] decoded = Base64.getDecoder().decode(secret.trim());
+            if (decoded.length < 32) {
+                throw new IllegalStateException("jwt.secret must be at least 32 bytes (base64-encoded)");
+            }
+            return decoded;
+        }
+        if (StringUtils.hasText(keystorePath)) {
+            try (InputStream in = Files.newInputStream(Path.of(keystorePath))) {
+                KeyStore keyStore = KeyStore.getInstance("PKCS12");
+                keyStore.load(in, password.toCharArray());
+                Key key = keyStore.getKey(alias, password.toCharArray());
+                if (key == null) {
+                    throw new IllegalStateException("No key '" + alias + "' in " + keystorePath);
+                }
+                return key.getEncoded();
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot load JWT keystore " + keystorePath, e);
+            }
+        }
+        log.warn("Neither jwt.secret nor jwt.keystore.path is set; using a random secret. " +
+                 "Tokens will not survive a restart or work across nodes.");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    private record Snapshot(long period, String activeKid, Map<String, Key> keys) {}
+}
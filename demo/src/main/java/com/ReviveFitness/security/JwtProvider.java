@@ -1,46 +1,120 @@
 package com.ReviveFitness.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtProvider {
 
-    // 24h expiration
-    private final long jwtExpirationMs = 24 * 60 * 60 * 1000;
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    public static final String ROLE_ADMIN = "ADMIN";
+    public static final String ROLE_MEMBER = "MEMBER";
+    private static final String ROLE_CLAIM = "role";
 
-    public String generateToken(String username) {
+    private final JwtKeyRing keyRing;
+    private final long jwtExpirationMs;
+    // JwtParser is immutable and thread-safe, so build it once; the key is picked per token by kid
+    private final JwtParser parser;
+
+    // Tokens whose signature we already checked; each entry expires with its token
+    private final Cache<String, VerifiedToken> verified;
+
+    public JwtProvider(JwtKeyRing keyRing,
+                       @Value("${jwt.expiration:PT24H}") Duration expiration,
+                       @Value("${jwt.cache.max-tokens:10000}") int maxCachedTokens) {
+        this.keyRing = keyRing;
+        this.jwtExpirationMs = expiration.toMillis();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new TokenExpiry())
+                .build();
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyRing.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown or retired signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    public String generateToken(String username, String role) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(now)
-                .setExpiration(expiry)
-                .signWith(key)
+                .header().keyId(keyRing.activeKeyId()).and()
+                .subject(username)
+                .claim(ROLE_CLAIM, role)
+                .issuedAt(now)
+                .expiration(expiry)
+                .signWith(keyRing.activeKey())
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verify the token once and return its subject and role, or empty if the token is invalid or
+     * expired. Repeat calls with the same token are answered from the cache until the token expires.
+     */
+    public Optional<TokenPrincipal> authenticate(String token) {
+        VerifiedToken cached = verified.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached.principal());
+        }
+
+        Claims claims;
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null) {
+            return Optional.empty();
+        }
+        // Tokens issued before roles existed carry none and get no role-based access
+        TokenPrincipal principal = new TokenPrincipal(claims.getSubject(), claims.get(ROLE_CLAIM, String.class));
+        if (claims.getExpiration() != null) {
+            verified.put(token, new VerifiedToken(principal, claims.getExpiration().getTime()));
         }
+        return Optional.of(principal);
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                            .setSigningKey(key)
-                            .build()
-                            .parseClaimsJws(token)
-                            .getBody();
-        return claims.getSubject();
+    /**
+     * Who a verified token belongs to; {@code role} is {@link #ROLE_ADMIN}, {@link #ROLE_MEMBER} or null.
+     */
+    public record TokenPrincipal(String subject, String role) {}
+
+    private record VerifiedToken(TokenPrincipal principal, long expiresAt) {}
+
+    // Keep each entry exactly until its token's exp claim; reads and overwrites don't extend it
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken value, long currentTime) {
+            long remainingMs = Math.max(0, value.expiresAt() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(remainingMs);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -4,8 +4,8 @@ import com.ReviveFitness.model.Admin;
 import com.ReviveFitness.repository.AdminRepository;
 import com.ReviveFitness.repository.MemberRepository;
 import com.ReviveFitness.repository.ProgramRepository;
-import com.ReviveFitness.repository.AttendanceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
@@ -26,26 +26,38 @@ public class AdminService {
     private ProgramRepository programRepository;
     
     @Autowired
-    private AttendanceRepository attendanceRepository;
+    private AttendanceRollupService attendanceRollupService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     public Admin authenticateAdmin(String adminId, String password) {
         Admin admin = adminRepository.findByAdminId(adminId);
         if (admin == null || !admin.getIsActive()) {
             throw new BadCredentialsException("Invalid adminId or inactive account");
         }
-        // Plain-text check for now; swap for BCryptPasswordEncoder.matches() in prod
-        if (!admin.getPassword().equals(password)) {
+        // BCrypt check on the hashing pool; legacy plain-text rows are rehashed after a successful login
+        String stored = admin.getPassword();
+        boolean ok = passwordHasher.verify(password, stored, hashed -> jdbcTemplate.update(
+            "UPDATE admins SET password = ? WHERE id = ? AND password = ?", hashed, admin.getId(), stored));
+        if (!ok) {
             throw new BadCredentialsException("Invalid adminId or password");
         }
         return admin;
     }
 
+    // Written asynchronously in batches by LastLoginRecorder
     public void updateLastLogin(Long adminId) {
-        Admin admin = adminRepository.findById(adminId).orElse(null);
-        if (admin != null) {
-            admin.setLastLogin(LocalDateTime.now());
-            adminRepository.save(admin);
-        }
+        lastLoginRecorder.recordAdminLogin(adminId);
     }
 
 
@@ -57,11 +69,9 @@ public class AdminService {
         stats.put("totalPrograms", programRepository.count());
         stats.put("totalActiveAdmins", adminRepository.countByIsActive(true));
         
-        // Get today's attendance
-        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        stats.put("todayAttendance", 
-            attendanceRepository.countByCheckInTimeBetween(startOfDay, endOfDay));
+        // Get today's attendance (one row from the daily rollup, not a scan of attendance_logs)
+        stats.put("todayAttendance", attendanceRollupService.getCheckInsOn(LocalDateTime.now()));
+        stats.put("currentOccupancy", occupancyService.getOccupancy().getOccupancy());
         
         return stats;
     }
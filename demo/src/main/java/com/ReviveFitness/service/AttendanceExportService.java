@@ -0,0 +1,82 @@
+package com.ReviveFitness.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams attendance_logs rows straight from a JDBC cursor to the response.
+ * Rows are written as they are read, so memory use does not depend on the table size.
+ */
+@Service
+public class AttendanceExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    public AttendanceExportService(DataSource dataSource) {
+        // Separate template so only exports stream: with fetch size Integer.MIN_VALUE on a
+        // forward-only, read-only statement the MySQL driver hands rows over as they arrive
+        // instead of buffering the whole result set
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public void export(Format format, LocalDateTime from, LocalDateTime to, Long memberId, OutputStream out) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, member_id, check_in_time FROM attendance_logs WHERE 1=1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND check_in_time >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND check_in_time < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (memberId != null) {
+            sql.append(" AND member_id = ?");
+            args.add(memberId);
+        }
+        sql.append(" ORDER BY id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writer.write("id,member_id,check_in_time\n");
+            }
+            cursorJdbcTemplate.query(sql.toString(), rs -> {
+                long id = rs.getLong(1);
+                long member = rs.getLong(2);
+                Timestamp ts = rs.getTimestamp(3);
+                String time = ts == null ? null : ts.toLocalDateTime().toString();
+                try {
+                    if (format == Format.CSV) {
+                        writer.write(id + "," + member + "," + (time == null ? "" : time) + "\n");
+                    } else {
+                        writer.write("{\"id\":" + id + ",\"memberId\":" + member + ",\"checkInTime\":"
+                            + (time == null ? "null" : "\"" + time + "\"") + "}\n");
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.AttendanceStatDTO;
+import com.ReviveFitness.event.AttendanceRemovedEvent;
+import com.ReviveFitness.event.CheckInsRecordedEvent;
+import com.ReviveFitness.model.AttendanceRollup;
+import com.ReviveFitness.model.AttendanceRollup.Granularity;
+import com.ReviveFitness.model.AttendanceRollupGuard;
+import com.ReviveFitness.model.CheckIn;
+import com.ReviveFitness.repository.AttendanceRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps hourly and daily check-in counts (overall and per member) in attendance_rollups.
+ *
+ * Counts are bumped in the same transaction that writes attendance_logs, so dashboard
+ * queries read a handful of pre-aggregated rows instead of scanning the raw log.
+ *
+ * Upserts run in unique-key order, so concurrent transactions bumping the same shared
+ * ALL_MEMBERS rows queue up instead of deadlocking. Updates and {@link #rebuild} are
+ * serialized through the attendance_rollup_guard row: updates lock it shared, a rebuild
+ * exclusively, each until its transaction ends.
+ */
+@Service
+public class AttendanceRollupService {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO attendance_rollups (granularity, bucket_start, member_id, check_ins) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE check_ins = check_ins + VALUES(check_ins)";
+
+    // {granularity}, {bucket expression}
+    private static final String REBUILD_PER_MEMBER_SQL =
+        "INSERT INTO attendance_rollups (granularity, bucket_start, member_id, check_ins) " +
+        "SELECT '%s', %s AS bucket, member_id, COUNT(*) FROM attendance_logs " +
+        "WHERE check_in_time IS NOT NULL GROUP BY bucket, member_id";
+    private static final String REBUILD_OVERALL_SQL =
+        "INSERT INTO attendance_rollups (granularity, bucket_start, member_id, check_ins) " +
+        "SELECT '%s', %s AS bucket, " + AttendanceRollup.ALL_MEMBERS + ", COUNT(*) FROM attendance_logs " +
+        "WHERE check_in_time IS NOT NULL GROUP BY bucket";
+    private static final String GUARD_SHARED_SQL =
+        "SELECT id FROM attendance_rollup_guard WHERE id = " + AttendanceRollupGuard.GUARD_ID + " FOR SHARE";
+    private static final String GUARD_EXCLUSIVE_SQL =
+        "SELECT id FROM attendance_rollup_guard WHERE id = " + AttendanceRollupGuard.GUARD_ID + " FOR UPDATE";
+
+    // Same order as the uk_rollup_bucket columns
+    private static final Comparator<BucketKey> KEY_ORDER = Comparator
+        .comparing((BucketKey k) -> k.granularity().name())
+        .thenComparing(BucketKey::memberId)
+        .thenComparing(BucketKey::bucketStart);
+
+    private static final String HOUR_BUCKET = "DATE_FORMAT(check_in_time, '%Y-%m-%d %H:00:00')";
+    private static final String DAY_BUCKET = "DATE(check_in_time)";
+
+    @Autowired
+    private AttendanceRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Outside any transaction: INSERT IGNORE on an existing row is a no-op
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureGuard() {
+        jdbcTemplate.update("INSERT IGNORE INTO attendance_rollup_guard (id) VALUES (?)", AttendanceRollupGuard.GUARD_ID);
+    }
+
+    @EventListener
+    public void onCheckInsRecorded(CheckInsRecordedEvent event) {
+        apply(event.getCheckIns(), 1);
+    }
+
+    @EventListener
+    public void onAttendanceRemoved(AttendanceRemovedEvent event) {
+        apply(List.of(new CheckIn(event.getMemberId(), event.getCheckInTime())), -1);
+    }
+
+    public List<AttendanceStatDTO> getStats(Granularity granularity, LocalDateTime from, LocalDateTime to, Long memberId) {
+        long member = memberId == null ? AttendanceRollup.ALL_MEMBERS : memberId;
+        return rollupRepository.findRange(granularity, member, bucketStart(granularity, from), to).stream()
+            .map(r -> new AttendanceStatDTO(r.getBucketStart(), r.getCheckIns()))
+            .collect(Collectors.toList());
+    }
+
+    public long getCheckInsOn(LocalDateTime day) {
+        return rollupRepository
+            .findByGranularityAndMemberIdAndBucketStart(Granularity.DAY, AttendanceRollup.ALL_MEMBERS, bucketStart(Granularity.DAY, day))
+            .map(AttendanceRollup::getCheckIns)
+            .orElse(0L);
+    }
+
+    /**
+     * Recompute every rollup from the raw attendance_logs table.
+     *
+     * Waits for in-flight rollup updates to commit and holds new ones back until it commits.
+     * READ COMMITTED makes the INSERT ... SELECTs plain consistent reads, so they don't wait
+     * on log rows whose transactions are themselves waiting for the guard.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void rebuild() {
+        jdbcTemplate.queryForList(GUARD_EXCLUSIVE_SQL, Integer.class);
+        jdbcTemplate.update("DELETE FROM attendance_rollups");
+        for (Granularity g : Granularity.values()) {
+            String bucket = g == Granularity.HOUR ? HOUR_BUCKET : DAY_BUCKET;
+            jdbcTemplate.update(String.format(REBUILD_PER_MEMBER_SQL, g.name(), bucket));
+            jdbcTemplate.update(String.format(REBUILD_OVERALL_SQL, g.name(), bucket));
+        }
+    }
+
+    // Aggregate the batch first so each bucket gets one upsert, however many check-ins it holds
+    private void apply(List<CheckIn> checkIns, int sign) {
+        Map<BucketKey, Long> deltas = new TreeMap<>(KEY_ORDER);
+        for (CheckIn c : checkIns) {
+            if (c.getCheckInTime() == null) {
+                continue;
+            }
+            for (Granularity g : Granularity.values()) {
+                LocalDateTime bucket = bucketStart(g, c.getCheckInTime());
+                deltas.merge(new BucketKey(g, bucket, c.getMemberId()), (long) sign, Long::sum);
+                deltas.merge(new BucketKey(g, bucket, AttendanceRollup.ALL_MEMBERS), (long) sign, Long::sum);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Joins the caller's transaction, so a concurrent rebuild waits for it to commit
+        jdbcTemplate.queryForList(GUARD_SHARED_SQL, Integer.class);
+        List<Map.Entry<BucketKey, Long>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getKey().granularity().name());
+            ps.setTimestamp(2, Timestamp.valueOf(row.getKey().bucketStart()));
+            ps.setLong(3, row.getKey().memberId());
+            ps.setLong(4, row.getValue());
+        });
+    }
+
+    private static LocalDateTime bucketStart(Granularity granularity, LocalDateTime time) {
+        return granularity == Granularity.HOUR
+            ? time.truncatedTo(ChronoUnit.HOURS)
+            : time.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime bucketStart, Long memberId) {}
+}
@@ -1,48 +1,205 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.dto.CheckInReceiptDTO;
+import com.ReviveFitness.event.AttendanceRemovedEvent;
+import com.ReviveFitness.event.CheckInsRecordedEvent;
+import com.ReviveFitness.event.CheckOutRecordedEvent;
 import com.ReviveFitness.model.Attendance;
+import com.ReviveFitness.model.CheckIn;
 import com.ReviveFitness.model.Member;
 import com.ReviveFitness.repository.AttendanceRepository;
 import com.ReviveFitness.repository.MemberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class AttendanceService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // Open bounds for history queries; also skips legacy rows that never had a check-in time
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     @Autowired
     private AttendanceRepository attendanceRepository;
 
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private CheckInPipeline checkInPipeline;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CheckInDeduplicator checkInDeduplicator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${attendance.checkin.write-behind:true}")
+    private boolean writeBehind;
+
+    @Value("${occupancy.session-max:PT3H}")
+    private Duration sessionMax;
+
+    // Members seen recently, so queued check-ins are validated without a query each time
+    private final Cache<Long, Boolean> knownMembers = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .build();
+
+    /**
+     * Record a check-in. In write-behind mode the check-in is only queued and the
+     * returned receipt has no attendance id yet; otherwise the row is saved right away.
+     * Repeats inside the de-duplication window, or with a seen Idempotency-Key, return
+     * the original receipt instead of writing again.
+     */
+    public CheckInReceiptDTO checkIn(Long memberId, String idempotencyKey) {
+        return checkInDeduplicator.checkIn(memberId, idempotencyKey, () -> writeCheckIn(memberId));
+    }
+
+    private CheckInReceiptDTO writeCheckIn(Long memberId) {
+        if (writeBehind) {
+            // Checked here so an unknown member gets a 400 now rather than being dropped by the writer later
+            requireKnownMember(memberId);
+            CheckIn queued = checkInPipeline.submit(memberId);
+            return new CheckInReceiptDTO(null, memberId, queued.getCheckInTime(), "QUEUED");
+        }
+        // createAttendance is called on this, not the proxy, so open the transaction here
+        Attendance saved = transactionTemplate.execute(status -> createAttendance(memberId));
+        return new CheckInReceiptDTO(saved.getId(), memberId, saved.getCheckInTime(), "RECORDED");
+    }
+
+    private void requireKnownMember(Long memberId) {
+        if (knownMembers.getIfPresent(memberId) != null) {
+            return;
+        }
+        if (!memberRepository.existsById(memberId)) {
+            throw new EntityNotFoundException("Member not found with id: " + memberId);
+        }
+        knownMembers.put(memberId, Boolean.TRUE);
+    }
+
+    @Transactional
     public Attendance createAttendance(Long memberId) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
         Attendance attendance = new Attendance();
         attendance.setMember(member);
-        return attendanceRepository.save(attendance);
+        attendance.setCheckInTime(LocalDateTime.now());
+        Attendance saved = attendanceRepository.save(attendance);
+        eventPublisher.publishEvent(new CheckInsRecordedEvent(
+            List.of(new CheckIn(memberId, saved.getCheckInTime(), saved.getId()))));
+        return saved;
+    }
+
+    /**
+     * Close the member's latest open session. Returns false if there was none
+     * (already checked out, or checked in longer ago than occupancy.session-max).
+     */
+    @Transactional
+    public boolean checkOut(Long memberId) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(
+            "UPDATE attendance_logs SET check_out_time = ? " +
+            "WHERE member_id = ? AND check_out_time IS NULL AND check_in_time >= ? " +
+            "ORDER BY check_in_time DESC LIMIT 1",
+            Timestamp.valueOf(now), memberId, Timestamp.valueOf(now.minus(sessionMax)));
+        if (updated == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new CheckOutRecordedEvent(memberId, now));
+        return true;
     }
 
-    public List<Attendance> getAllAttendance() {
-        return attendanceRepository.findAll();
+    /**
+     * A requested page size clamped to 1..{@link #MAX_PAGE_SIZE}.
+     */
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Keyset page of attendance rows with id greater than {@code afterId}, oldest first.
+     * {@code limit} should come from {@link #pageSize}.
+     */
+    public List<Attendance> getAttendancePage(Long afterId, int limit) {
+        return attendanceRepository.findByIdGreaterThanOrderByIdAsc(
+            afterId == null ? 0L : afterId, PageRequest.of(0, limit));
     }
 
     public Optional<Attendance> getAttendanceById(Long id) {
         return attendanceRepository.findById(id);
     }
 
-    public List<Attendance> getAttendanceByMemberId(Long memberId) {
-        return attendanceRepository.findByMember_Id(memberId);
+    /**
+     * One page of a member's check-ins between {@code from} (inclusive) and {@code to} (exclusive),
+     * newest first. {@code cursor} is the value returned by {@link #cursorOf} for the last row
+     * of the previous page, or null for the first page.
+     */
+    public List<Attendance> getAttendanceByMemberId(Long memberId, LocalDateTime from, LocalDateTime to,
+                                                    String cursor, int limit) {
+        LocalDateTime start = from != null ? from : HISTORY_START;
+        LocalDateTime end = to != null ? to : HISTORY_END;
+        PageRequest page = PageRequest.of(0, limit);
+        if (cursor == null || cursor.isBlank()) {
+            return attendanceRepository.findMemberHistory(memberId, start, end, page);
+        }
+        String[] parts = decodeCursor(cursor);
+        return attendanceRepository.findMemberHistoryBefore(
+            memberId, start, end, LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]), page);
     }
 
-    public void deleteAttendance(Long id) {
-        if (!attendanceRepository.existsById(id)) {
-            throw new RuntimeException("Attendance record with id " + id + " not found.");
+    // Opaque keyset cursor: base64url("<checkInTime>|<id>")
+    public static String cursorOf(Attendance attendance) {
+        String raw = attendance.getCheckInTime() + "|" + attendance.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
         }
-        attendanceRepository.deleteById(id);
+    }
+
+    @Transactional
+    public void deleteAttendance(Long id) {
+        Attendance attendance = attendanceRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Attendance record with id " + id + " not found."));
+        attendanceRepository.delete(attendance);
+        eventPublisher.publishEvent(new AttendanceRemovedEvent(
+            attendance.getMember().getId(), attendance.getCheckInTime()));
     }
 }
@@ -0,0 +1,193 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.event.CatalogChangedEvent;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import com.ReviveFitness.repository.ProgramRepository;
+import com.ReviveFitness.repository.TrainerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded JSON (plain and gzip) of the public trainer and program listings.
+ *
+ * Each section has a version in catalog_versions, bumped in the same transaction as every
+ * catalog write, so all nodes see it move together with the data. A node re-reads the
+ * versions at most every catalog.version-check-ms (at once after its own writes), and a
+ * snapshot is rebuilt on the first read after its version moves, so serving a listing is
+ * normally just writing a cached byte[] to the response. The versions also back the catalog
+ * ETags.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    /** Immutable, ready-to-send encoding of one listing. */
+    public static final class JsonSnapshot {
+        private final long version;
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private JsonSnapshot(long version, String etag, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public long getVersion() { return version; }
+        public String getEtag() { return etag; }
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    @Autowired
+    private TrainerRepository trainerRepository;
+
+    @Autowired
+    private TrainerService trainerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${catalog.version-check-ms:1000}")
+    private long versionCheckMs;
+
+    // Last version read from catalog_versions per section, and when
+    private final Map<Section, CheckedVersion> versions = new ConcurrentHashMap<>();
+    private final Map<Section, JsonSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Section, ReentrantLock> rebuildLocks = new EnumMap<>(Section.class);
+
+    public CatalogSnapshotService() {
+        for (Section s : Section.values()) {
+            rebuildLocks.put(s, new ReentrantLock());
+        }
+    }
+
+    // Outside any transaction: INSERT IGNORE on an existing row is a no-op
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureVersions() {
+        for (Section s : Section.values()) {
+            jdbcTemplate.update("INSERT IGNORE INTO catalog_versions (section, version) VALUES (?, 1)", s.name());
+        }
+    }
+
+    // In the writer's transaction, so other nodes see the new version exactly when they see the new data
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        jdbcTemplate.update("UPDATE catalog_versions SET version = version + 1 WHERE section = ?",
+            event.getSection().name());
+    }
+
+    // Our own writes show up at once rather than at the next periodic check
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCatalogChanged(CatalogChangedEvent event) {
+        versions.remove(event.getSection());
+    }
+
+    /**
+     * Strong ETag for the current state of a section. Reading it costs at most one primary-key
+     * lookup per catalog.version-check-ms.
+     */
+    public String etag(Section section) {
+        return etag(section, version(section));
+    }
+
+    /**
+     * Current listing of {@link Section#TRAINERS} or {@link Section#PROGRAMS}.
+     */
+    public JsonSnapshot getSnapshot(Section section) {
+        JsonSnapshot current = currentSnapshot(section);
+        if (current != null) {
+            return current;
+        }
+        ReentrantLock lock = rebuildLocks.get(section);
+        lock.lock();
+        try {
+            // Another thread may have rebuilt it while we waited
+            current = currentSnapshot(section);
+            if (current != null) {
+                return current;
+            }
+            // Read the version before loading: a write that lands mid-build leaves this snapshot stale
+            long version = version(section);
+            JsonSnapshot rebuilt = encode(version, etag(section, version), load(section));
+            snapshots.put(section, rebuilt);
+            return rebuilt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private JsonSnapshot currentSnapshot(Section section) {
+        JsonSnapshot snapshot = snapshots.get(section);
+        return snapshot != null && snapshot.version == version(section) ? snapshot : null;
+    }
+
+    private long version(Section section) {
+        long now = System.nanoTime();
+        CheckedVersion checked = versions.get(section);
+        if (checked != null && now - checked.at() < TimeUnit.MILLISECONDS.toNanos(versionCheckMs)) {
+            return checked.version();
+        }
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT version FROM catalog_versions WHERE section = ?", Long.class, section.name());
+        long version = rows.isEmpty() ? 0 : rows.get(0);
+        versions.put(section, new CheckedVersion(version, now));
+        return version;
+    }
+
+    // Straight from the repositories, so a not-yet-evicted service cache can't leak into a new snapshot
+    private List<?> load(Section section) {
+        return switch (section) {
+            case TRAINERS -> trainerRepository.findAllWithAchievements().stream().map(trainerService::convertToDTO).toList();
+            case PROGRAMS -> programRepository.findAll();
+            default -> throw new IllegalArgumentException("No snapshot for " + section);
+        };
+    }
+
+    private record CheckedVersion(long version, long at) {}
+
+    // Only the shared version, so every node hands out the same ETag for the same data
+    private String etag(Section section, long version) {
+        return "\"" + section.name().toLowerCase() + "-" + version + "\"";
+    }
+
+    private JsonSnapshot encode(long version, String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            return new JsonSnapshot(version, etag, json, buffer.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + body, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
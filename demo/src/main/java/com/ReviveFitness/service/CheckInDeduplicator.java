@@ -0,0 +1,159 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.CheckInReceiptDTO;
+import com.ReviveFitness.event.CheckOutRecordedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * In-memory guard against duplicate check-ins.
+ *
+ * A second check-in from the same member inside the de-duplication window gets the first
+ * receipt back (status DUPLICATE) without touching the queue or the database. A request
+ * that repeats an Idempotency-Key gets the original receipt back unchanged.
+ * A check-out ends the member's window, so checking in again right after is a new visit.
+ * Member entries expire on their own and are swept once a minute; idempotency keys live in
+ * a cache bounded by attendance.checkin.idempotency-max-keys.
+ */
+@Component
+public class CheckInDeduplicator {
+
+    private final long windowMillis;
+    private final long idempotencyTtlMillis;
+
+    private final ConcurrentMap<Long, Entry> recentByMember = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry> byIdempotencyKey;
+
+    public CheckInDeduplicator(@Value("${attendance.checkin.dedup-window:PT5M}") Duration window,
+                               @Value("${attendance.checkin.idempotency-ttl:PT24H}") Duration idempotencyTtl,
+                               @Value("${attendance.checkin.idempotency-max-keys:100000}") int maxIdempotencyKeys) {
+        this.windowMillis = window.toMillis();
+        this.idempotencyTtlMillis = idempotencyTtl.toMillis();
+        // Least recently used keys go first once the cap is reached
+        Cache<String, Entry> keys = Caffeine.newBuilder()
+            .maximumSize(maxIdempotencyKeys)
+            .expireAfterWrite(idempotencyTtl)
+            .build();
+        this.byIdempotencyKey = keys.asMap();
+    }
+
+    /**
+     * Run {@code writer} unless this check-in repeats an earlier one, in which case the
+     * earlier receipt is returned. Concurrent duplicates wait for the first writer instead
+     * of racing it.
+     */
+    public CheckInReceiptDTO checkIn(Long memberId, String idempotencyKey, Supplier<CheckInReceiptDTO> writer) {
+        long now = System.currentTimeMillis();
+
+        Entry keyEntry = null;
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            Entry candidate = new Entry(now + idempotencyTtlMillis);
+            Entry existing = claim(byIdempotencyKey, idempotencyKey, candidate, now);
+            if (existing != candidate) {
+                CheckInReceiptDTO original = existing.await();
+                if (!original.getMemberId().equals(memberId)) {
+                    throw new IllegalArgumentException("Idempotency-Key was already used for a different member");
+                }
+                return original;
+            }
+            keyEntry = candidate;
+        }
+
+        Entry memberEntry = null;
+        try {
+            if (windowMillis > 0) {
+                Entry candidate = new Entry(now + windowMillis);
+                Entry existing = claim(recentByMember, memberId, candidate, now);
+                if (existing != candidate) {
+                    CheckInReceiptDTO first = existing.await();
+                    CheckInReceiptDTO duplicate = new CheckInReceiptDTO(
+                        first.getId(), first.getMemberId(), first.getCheckInTime(), "DUPLICATE");
+                    complete(keyEntry, duplicate);
+                    return duplicate;
+                }
+                memberEntry = candidate;
+            }
+
+            CheckInReceiptDTO receipt = writer.get();
+            complete(memberEntry, receipt);
+            complete(keyEntry, receipt);
+            return receipt;
+        } catch (RuntimeException e) {
+            // Nothing was recorded, so let the next attempt through
+            fail(recentByMember, memberId, memberEntry, e);
+            fail(byIdempotencyKey, idempotencyKey, keyEntry, e);
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckOut(CheckOutRecordedEvent event) {
+        recentByMember.remove(event.getMemberId());
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        recentByMember.values().removeIf(e -> e.isExpired(now));
+    }
+
+    // Returns the live entry for the key: either the candidate we just installed or an earlier one
+    private static <K> Entry claim(ConcurrentMap<K, Entry> map, K key, Entry candidate, long now) {
+        return map.compute(key, (k, old) -> old != null && !old.isExpired(now) ? old : candidate);
+    }
+
+    private static void complete(Entry entry, CheckInReceiptDTO receipt) {
+        if (entry != null) {
+            entry.result.complete(receipt);
+        }
+    }
+
+    private static <K> void fail(ConcurrentMap<K, Entry> map, K key, Entry entry, RuntimeException e) {
+        if (entry != null) {
+            map.remove(key, entry);
+            entry.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class Entry {
+        private final long expiresAt;
+        private final CompletableFuture<CheckInReceiptDTO> result = new CompletableFuture<>();
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        private CheckInReceiptDTO await() {
+            try {
+                return result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new RuntimeException("Timed out waiting for the original check-in");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the original check-in");
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.event.CheckInsRecordedEvent;
+import com.ReviveFitness.exception.ServiceBusyException;
+import com.ReviveFitness.model.CheckIn;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind check-in ingestion.
+ *
+ * Request threads only put a {@link CheckIn} on a bounded queue; a single background
+ * writer drains it and inserts the rows into attendance_logs with one JDBC batch per flush.
+ * When the queue is full, {@link #submit} waits briefly and then fails with
+ * {@link ServiceBusyException} so callers get a 503 instead of piling up threads.
+ * On shutdown the queue stops accepting work and is drained before the datasource closes.
+ *
+ * Callers check that the member exists before submitting; a member deleted while their
+ * check-in was queued is discarded at flush time. A batch that still fails after
+ * attendance.checkin.max-flush-attempts tries is dropped. Both are counted in
+ * attendance.checkin.dropped.
+ */
+@Service
+public class CheckInPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckInPipeline.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO attendance_logs (member_id, check_in_time) VALUES (?, ?)";
+
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<CheckIn> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final int maxFlushAttempts;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter dropped;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    public CheckInPipeline(JdbcTemplate jdbcTemplate,
+                           NamedParameterJdbcTemplate namedJdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry,
+                           @Value("${attendance.checkin.queue-capacity:10000}") int queueCapacity,
+                           @Value("${attendance.checkin.batch-size:500}") int batchSize,
+                           @Value("${attendance.checkin.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${attendance.checkin.offer-timeout-ms:50}") long offerTimeoutMs,
+                           @Value("${attendance.checkin.shutdown-timeout-ms:30000}") long shutdownTimeoutMs,
+                           @Value("${attendance.checkin.max-flush-attempts:5}") int maxFlushAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.maxFlushAttempts = maxFlushAttempts;
+
+        Gauge.builder("attendance.checkin.queue.depth", queue, BlockingQueue::size)
+            .description("Check-ins waiting to be written")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("attendance.checkin.flush")
+            .description("Time to write one batch of check-ins")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("attendance.checkin.batch.size")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("attendance.checkin.rejected")
+            .description("Check-ins refused because the queue was full")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("attendance.checkin.dropped")
+            .description("Check-ins discarded at flush time (unknown member or failed write)")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue a check-in for the given member, stamped with the current server time.
+     */
+    public CheckIn submit(Long memberId) {
+        if (!accepting) {
+            throw new ServiceBusyException("Check-in service is shutting down", 5);
+        }
+        CheckIn checkIn = new CheckIn(memberId, LocalDateTime.now());
+        try {
+            if (!queue.offer(checkIn, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new ServiceBusyException("Too many check-ins right now, please retry", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while queueing check-in", 1);
+        }
+        return checkIn;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // ---- background writer ----
+
+    private void runWriter() {
+        List<CheckIn> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                CheckIn first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flushWithRetry(batch);
+            } catch (InterruptedException e) {
+                // Only stop() interrupts us, and only after the drain deadline has passed
+                Thread.currentThread().interrupt();
+                if (!batch.isEmpty()) {
+                    log.error("Dropping {} check-ins: writer interrupted while retrying", batch.size());
+                    dropped.increment(batch.size());
+                }
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.error("Check-in writer stopped with {} check-ins still queued", queue.size());
+            dropped.increment(queue.size());
+        }
+    }
+
+    private void flushWithRetry(List<CheckIn> batch) throws InterruptedException {
+        long backoffMs = 500;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flush(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Dropping {} check-ins after write failure during shutdown", batch.size(), e);
+                    dropped.increment(batch.size());
+                    return;
+                }
+                if (attempt >= maxFlushAttempts) {
+                    // Most likely not transient (e.g. a constraint violation); don't block the queue behind it
+                    log.error("Dropping {} check-ins after {} failed attempts", batch.size(), attempt, e);
+                    dropped.increment(batch.size());
+                    return;
+                }
+                log.warn("Failed to write {} check-ins, retrying in {} ms", batch.size(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void flush(List<CheckIn> batch) {
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            // One lookup per batch instead of one findById per request
+            Set<Long> knownMembers = existingMemberIds(batch);
+            List<CheckIn> valid = new ArrayList<>(batch.size());
+            for (CheckIn c : batch) {
+                if (knownMembers.contains(c.getMemberId())) {
+                    valid.add(c);
+                }
+            }
+            if (valid.size() < batch.size()) {
+                log.warn("Discarding {} check-ins for unknown members", batch.size() - valid.size());
+                dropped.increment(batch.size() - valid.size());
+            }
+            List<CheckIn> recorded = insert(valid);
+            // Listeners (rollups, ...) join this transaction
+            eventPublisher.publishEvent(new CheckInsRecordedEvent(recorded));
+        }));
+        batchSizes.record(batch.size());
+    }
+
+    // One JDBC batch; the generated ids come back in insert order
+    private List<CheckIn> insert(List<CheckIn> checkIns) {
+        if (checkIns.isEmpty()) {
+            return checkIns;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<CheckIn>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (CheckIn c : checkIns) {
+                    ps.setLong(1, c.getMemberId());
+                    ps.setTimestamp(2, Timestamp.valueOf(c.getCheckInTime()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<CheckIn> recorded = new ArrayList<>(checkIns.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (CheckIn c : checkIns) {
+                        Long id = keys.next() ? keys.getLong(1) : null;
+                        recorded.add(new CheckIn(c.getMemberId(), c.getCheckInTime(), id));
+                    }
+                }
+                return recorded;
+            }
+        });
+    }
+
+    private Set<Long> existingMemberIds(List<CheckIn> batch) {
+        Set<Long> ids = new HashSet<>();
+        for (CheckIn c : batch) {
+            ids.add(c.getMemberId());
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+            "SELECT id FROM members WHERE id IN (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    // ---- lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        accepting = true;
+        writer = new Thread(this::runWriter, "checkin-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+            if (writer.isAlive()) {
+                writer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before and stop after the embedded web server, so in-flight requests can still enqueue
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -1,12 +1,24 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.event.CatalogChangedEvent;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
 import com.ReviveFitness.model.CurrentChallenge;
+import com.ReviveFitness.repository.ActiveChallengeRepository;
 import com.ReviveFitness.repository.CurrentChallengeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CurrentChallengeService {
@@ -14,53 +26,127 @@ public class CurrentChallengeService {
     @Autowired
     private CurrentChallengeRepository currentChallengeRepository;
 
+    @Autowired
+    private ActiveChallengeRepository activeChallengeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // In-memory pointer to the active challenge; stale once generation moves past it
+    private volatile ActivePointer active;
+    private final AtomicLong generation = new AtomicLong();
+
     // Get all challenges
+    @Cacheable("challenges")
     public List<CurrentChallenge> getAllChallenges() {
         return currentChallengeRepository.findAll();
     }
 
-    // Get the first challenge (current one)
+    /**
+     * The active challenge. Served from memory; after a challenge write the pointer is
+     * reloaded with one lookup through the active_challenge marker row.
+     */
     public CurrentChallenge getOrCreateCurrentChallenge() {
-        List<CurrentChallenge> challenges = currentChallengeRepository.findAll();
-        if (challenges.isEmpty()) {
-            return createDefaultChallenge();
+        ActivePointer pointer = active;
+        long current = generation.get();
+        if (pointer != null && pointer.generation() == current) {
+            return pointer.challenge();
         }
-        return challenges.get(0); // Return the first one as "current"
+        CurrentChallenge challenge = currentChallengeRepository.findActive()
+            .orElseGet(this::chooseActiveChallenge);
+        // Tagged with the generation read before loading, so an invalidation that raced the load wins
+        active = new ActivePointer(current, challenge);
+        return challenge;
     }
 
     // Create new challenge
+    @CacheEvict(value = "challenges", allEntries = true)
     public CurrentChallenge createChallenge(CurrentChallenge challenge) {
-        return currentChallengeRepository.save(challenge);
+        CurrentChallenge saved = currentChallengeRepository.save(challenge);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Section.CHALLENGES, saved.getId()));
+        return saved;
     }
 
     // Update specific challenge
+    @CacheEvict(value = "challenges", allEntries = true)
     public CurrentChallenge updateChallenge(Long id, CurrentChallenge updatedChallenge) {
         return currentChallengeRepository.findById(id)
             .map(existingChallenge -> {
                 existingChallenge.setTitle(updatedChallenge.getTitle());
                 existingChallenge.setDescription(updatedChallenge.getDescription());
                 existingChallenge.setImageUrl(updatedChallenge.getImageUrl());
-                return currentChallengeRepository.save(existingChallenge);
+                // Older clients don't send the window; keep it unless a new one is given
+                if (updatedChallenge.getStartDate() != null) {
+                    existingChallenge.setStartDate(updatedChallenge.getStartDate());
+                }
+                if (updatedChallenge.getEndDate() != null) {
+                    existingChallenge.setEndDate(updatedChallenge.getEndDate());
+                }
+                CurrentChallenge saved = currentChallengeRepository.save(existingChallenge);
+                eventPublisher.publishEvent(new CatalogChangedEvent(Section.CHALLENGES, id));
+                return saved;
             })
             .orElseThrow(() -> new RuntimeException("Challenge not found with id: " + id));
     }
 
-    // Delete challenge
+    // Delete challenge; if it was the active one, the next read picks another
+    @Transactional
+    @CacheEvict(value = "challenges", allEntries = true)
     public void deleteChallenge(Long id) {
         if (!currentChallengeRepository.existsById(id)) {
             throw new RuntimeException("Challenge not found with id: " + id);
         }
+        activeChallengeRepository.clearIfActive(id);
         currentChallengeRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Section.CHALLENGES, id));
     }
 
-    // Set a specific challenge as the current one (for future enhancement)
+    // Set a specific challenge as the current one
+    @Transactional
     public CurrentChallenge setAsCurrentChallenge(Long id) {
-        Optional<CurrentChallenge> challenge = currentChallengeRepository.findById(id);
-        if (challenge.isPresent()) {
-            // In a real app, you might add an "isActive" field to mark the current challenge
-            return challenge.get();
+        CurrentChallenge challenge = currentChallengeRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Challenge not found with id: " + id));
+        activeChallengeRepository.setActiveChallengeId(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Section.CHALLENGES, id));
+        return challenge;
+    }
+
+    // Any committed challenge write may change what the active challenge looks like
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getSection() == Section.CHALLENGES) {
+            generation.incrementAndGet();
         }
-        throw new RuntimeException("Challenge not found with id: " + id);
+    }
+
+    /*
+     * No usable marker yet: point it at the oldest challenge, or a new default one. The marker
+     * row lock serializes concurrent first requests (on every node), so exactly one of them
+     * chooses and the rest see its choice.
+     */
+    private CurrentChallenge chooseActiveChallenge() {
+        // Outside the transaction below, and outside any caller's: a duplicate-key INSERT IGNORE
+        // takes a shared lock that would deadlock against the FOR UPDATE of a concurrent request
+        TransactionTemplate outside = new TransactionTemplate(transactionManager);
+        outside.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        outside.executeWithoutResult(status -> activeChallengeRepository.ensureMarker());
+
+        TransactionTemplate choose = new TransactionTemplate(transactionManager);
+        choose.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return choose.execute(status -> {
+            Optional<CurrentChallenge> chosen = activeChallengeRepository.lockActiveChallengeId()
+                .flatMap(currentChallengeRepository::findById);
+            if (chosen.isPresent()) {
+                return chosen.get();
+            }
+            CurrentChallenge challenge = currentChallengeRepository.findFirstByOrderByIdAsc()
+                .orElseGet(this::createDefaultChallenge);
+            activeChallengeRepository.setActiveChallengeId(challenge.getId());
+            return challenge;
+        });
     }
 
     // Helper method to create a default challenge
@@ -69,6 +155,10 @@ public class CurrentChallengeService {
         defaultChallenge.setTitle("90-Day Transformation");
         defaultChallenge.setDescription("Ready to transform your body? Join our 90-day challenge!");
         defaultChallenge.setImageUrl("https://images.unsplash.com/photo-1534438327276-14e5300c3a48");
-        return currentChallengeRepository.save(defaultChallenge);
+        CurrentChallenge saved = currentChallengeRepository.save(defaultChallenge);
+        eventPublisher.publishEvent(new CatalogChangedEvent(Section.CHALLENGES, saved.getId()));
+        return saved;
     }
+
+    private record ActivePointer(long generation, CurrentChallenge challenge) {}
 }
\ No newline at end of file
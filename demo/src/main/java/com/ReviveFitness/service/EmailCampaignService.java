@@ -0,0 +1,278 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.EmailCampaignDTO;
+import com.ReviveFitness.dto.EmailCampaignRequest;
+import com.ReviveFitness.model.EmailCampaign;
+import com.ReviveFitness.model.EmailCampaign.Audience;
+import com.ReviveFitness.model.EmailCampaign.Status;
+import com.ReviveFitness.repository.EmailCampaignRepository;
+import com.ReviveFitness.service.EmailService.OutgoingEmail;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulk email to a challenge's participants or a program's members.
+ *
+ * Creating a campaign only stores it. A scheduled job then walks the join table with a keyset
+ * cursor, a page at a time: each page is rendered and inserted into email_outbox in the same
+ * transaction that advances the cursor, so nothing is queued twice or skipped across restarts.
+ * Queueing pauses while a campaign already has email.campaign.max-backlog undelivered rows,
+ * which keeps the outbox small; the send rate itself is capped by {@link EmailOutboxWorker}.
+ */
+@Service
+public class EmailCampaignService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailCampaignService.class);
+
+    private static final Set<String> RECIPIENT_KEYS = Set.of("name", "email");
+
+    private record AudienceSource(String joinTable, String column, String titleSql) {}
+
+    private record CompiledCampaign(MailTemplate subject, MailTemplate body) {}
+
+    @Autowired
+    private EmailCampaignRepository campaignRepo;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${email.campaign.page-size:500}")
+    private int pageSize;
+
+    @Value("${email.campaign.max-backlog:2000}")
+    private long maxBacklog;
+
+    // Templates of campaigns this node is queueing, parsed once per campaign
+    private final Map<Long, CompiledCampaign> compiled = new ConcurrentHashMap<>();
+
+    public EmailCampaignDTO createCampaign(EmailCampaignRequest request) {
+        if (request.getAudience() == null || request.getAudienceId() == null) {
+            throw new IllegalArgumentException("audience and audienceId are required");
+        }
+        if (request.getSubject() == null || request.getSubject().isBlank()
+                || request.getBody() == null || request.getBody().isBlank()) {
+            throw new IllegalArgumentException("subject and body are required");
+        }
+        AudienceSource source = sourceOf(request.getAudience());
+        // Fails early on a missing audience or a bad placeholder
+        compile(request.getSubject(), request.getBody(), title(source, request.getAudienceId()));
+
+        Long total = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + source.joinTable() + " WHERE " + source.column() + " = ?",
+            Long.class, request.getAudienceId());
+        EmailCampaign campaign = campaignRepo.save(EmailCampaign.builder()
+            .audience(request.getAudience())
+            .audienceId(request.getAudienceId())
+            .subject(request.getSubject())
+            .body(request.getBody())
+            .status(Status.QUEUEING)
+            .lastMemberId(0)
+            .totalRecipients(total == null ? 0 : total)
+            .createdAt(LocalDateTime.now())
+            .build());
+        return toDTO(campaign);
+    }
+
+    public EmailCampaignDTO getProgress(Long id) {
+        return toDTO(campaignRepo.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Campaign not found")));
+    }
+
+    /**
+     * Stop queueing and dead-letter whatever hasn't been handed to a worker yet.
+     */
+    public EmailCampaignDTO cancel(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int updated = jdbcTemplate.update(
+                "UPDATE email_campaigns SET status = ? WHERE id = ?", Status.CANCELLED.name(), id);
+            if (updated == 0) {
+                throw new EntityNotFoundException("Campaign not found");
+            }
+            jdbcTemplate.update(
+                "UPDATE email_outbox SET status = 'DEAD', last_error = 'Campaign cancelled' " +
+                "WHERE campaign_id = ? AND status = 'PENDING'", id);
+        });
+        compiled.remove(id);
+        return getProgress(id);
+    }
+
+    // ---- background queueing ----
+
+    @Scheduled(fixedDelayString = "${email.campaign.interval-ms:5000}")
+    public void queueRecipients() {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT id FROM email_campaigns WHERE status = ? ORDER BY id", Long.class, Status.QUEUEING.name());
+        for (Long id : ids) {
+            try {
+                queueCampaign(id);
+            } catch (RuntimeException e) {
+                log.warn("Failed to queue recipients of campaign {}", id, e);
+            }
+        }
+    }
+
+    private void queueCampaign(long id) {
+        while (backlog(id) < maxBacklog) {
+            Boolean more = transactionTemplate.execute(status -> queueNextPage(id));
+            if (!Boolean.TRUE.equals(more)) {
+                return;
+            }
+        }
+    }
+
+    // One page of recipients into the outbox, plus the cursor move, in the caller's transaction
+    private boolean queueNextPage(long id) {
+        // SKIP LOCKED: if another node is on this campaign, leave it to them
+        List<EmailCampaign> locked = jdbcTemplate.query(
+            "SELECT id, audience, audience_id, subject, body, status, last_member_id FROM email_campaigns " +
+            "WHERE id = ? FOR UPDATE SKIP LOCKED",
+            (rs, i) -> EmailCampaign.builder()
+                .id(rs.getLong("id"))
+                .audience(Audience.valueOf(rs.getString("audience")))
+                .audienceId(rs.getLong("audience_id"))
+                .subject(rs.getString("subject"))
+                .body(rs.getString("body"))
+                .status(Status.valueOf(rs.getString("status")))
+                .lastMemberId(rs.getLong("last_member_id"))
+                .build(),
+            id);
+        if (locked.isEmpty() || locked.get(0).getStatus() != Status.QUEUEING) {
+            compiled.remove(id);
+            return false;
+        }
+        EmailCampaign campaign = locked.get(0);
+        AudienceSource source = sourceOf(campaign.getAudience());
+        CompiledCampaign templates = templatesOf(campaign, source);
+
+        List<OutgoingEmail> messages = new ArrayList<>(pageSize);
+        long[] lastMemberId = {campaign.getLastMemberId()};
+        int[] rows = {0};
+        jdbcTemplate.query(
+            "SELECT m.id, m.name, m.email FROM " + source.joinTable() + " j JOIN members m ON m.id = j.member_id " +
+            "WHERE j." + source.column() + " = ? AND j.member_id > ? ORDER BY j.member_id LIMIT ?",
+            (RowCallbackHandler) rs -> {
+                rows[0]++;
+                lastMemberId[0] = rs.getLong("id");
+                String email = rs.getString("email");
+                if (email == null || email.isBlank()) {
+                    return;
+                }
+                Map<String, String> values = Map.of(
+                    "name", rs.getString("name") == null ? "" : rs.getString("name"),
+                    "email", email);
+                messages.add(new OutgoingEmail(email, templates.subject().render(values), templates.body().render(values)));
+            },
+            campaign.getAudienceId(), campaign.getLastMemberId(), pageSize);
+
+        emailService.queueCampaignMessages(id, messages);
+        boolean finished = rows[0] < pageSize;
+        jdbcTemplate.update(
+            "UPDATE email_campaigns SET last_member_id = ?, queued_count = queued_count + ?, status = ?, queued_at = ? " +
+            "WHERE id = ?",
+            lastMemberId[0], messages.size(),
+            (finished ? Status.QUEUED : Status.QUEUEING).name(),
+            finished ? Timestamp.valueOf(LocalDateTime.now()) : null,
+            id);
+        if (finished) {
+            compiled.remove(id);
+            log.info("Campaign {} fully queued", id);
+        }
+        return !finished;
+    }
+
+    private CompiledCampaign templatesOf(EmailCampaign campaign, AudienceSource source) {
+        // Not computeIfAbsent: the title lookup is a query, and blocking inside the map's bin lock
+        // would pin a virtual thread
+        CompiledCampaign templates = compiled.get(campaign.getId());
+        if (templates == null) {
+            templates = compile(campaign.getSubject(), campaign.getBody(), title(source, campaign.getAudienceId()));
+            compiled.put(campaign.getId(), templates);
+        }
+        return templates;
+    }
+
+    private long backlog(long id) {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM email_outbox WHERE campaign_id = ? AND status IN ('PENDING', 'SENDING')",
+            Long.class, id);
+        return count == null ? 0 : count;
+    }
+
+    // ---- helpers ----
+
+    private static AudienceSource sourceOf(Audience audience) {
+        return switch (audience) {
+            case CHALLENGE -> new AudienceSource("member_challenges", "challenge_id",
+                "SELECT title FROM current_challenges WHERE id = ?");
+            case PROGRAM -> new AudienceSource("member_programs", "program_id",
+                "SELECT name FROM programs WHERE id = ?");
+        };
+    }
+
+    private String title(AudienceSource source, Long audienceId) {
+        List<String> titles = jdbcTemplate.queryForList(source.titleSql(), String.class, audienceId);
+        if (titles.isEmpty()) {
+            throw new EntityNotFoundException("Audience not found");
+        }
+        return titles.get(0) == null ? "" : titles.get(0);
+    }
+
+    private static CompiledCampaign compile(String subject, String body, String title) {
+        Map<String, String> fixed = Map.of("title", title);
+        return new CompiledCampaign(
+            MailTemplate.compile(subject, fixed, RECIPIENT_KEYS),
+            MailTemplate.compile(body, fixed, RECIPIENT_KEYS));
+    }
+
+    private EmailCampaignDTO toDTO(EmailCampaign campaign) {
+        long pending = 0;
+        long failed = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT status, COUNT(*) AS n FROM email_outbox WHERE campaign_id = ? GROUP BY status", campaign.getId())) {
+            long n = ((Number) row.get("n")).longValue();
+            switch ((String) row.get("status")) {
+                case "PENDING", "SENDING" -> pending += n;
+                case "DEAD" -> failed += n;
+                default -> { }
+            }
+        }
+        // Derived rather than counted: SENT rows are purged from the outbox after a while
+        long sent = Math.max(0, campaign.getQueuedCount() - pending - failed);
+        return EmailCampaignDTO.builder()
+            .id(campaign.getId())
+            .audience(campaign.getAudience())
+            .audienceId(campaign.getAudienceId())
+            .status(campaign.getStatus())
+            .totalRecipients(campaign.getTotalRecipients())
+            .queued(campaign.getQueuedCount())
+            .sent(sent)
+            .pending(pending)
+            .failed(failed)
+            .done(campaign.getStatus() != Status.QUEUEING && pending == 0)
+            .createdAt(campaign.getCreatedAt())
+            .queuedAt(campaign.getQueuedAt())
+            .build();
+    }
+}
@@ -0,0 +1,395 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.event.EmailQueuedEvent;
+import com.ReviveFitness.model.EmailOutbox.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers email_outbox rows over SMTP.
+ *
+ * A few worker threads each claim a batch of due rows (FOR UPDATE SKIP LOCKED, so several
+ * nodes can share the table), mark them SENDING with a lease, and send them over one SMTP
+ * connection that the worker keeps open until it runs out of work. Failed messages are retried
+ * with exponential backoff and end up DEAD after email.outbox.max-attempts, or straight away
+ * when the server rejects the address. A row whose worker died mid-batch is picked up again
+ * once its lease runs out, so delivery is at-least-once. To keep that rare, SMTP calls time out
+ * (the spring.mail.properties.mail.smtp.*timeout settings), and a worker that has used half
+ * the lease hands the rest of its batch back instead of sending it late.
+ *
+ * All workers share one send budget (email.outbox.max-per-second, with a burst of one second's
+ * worth) so bulk campaigns stay inside the SMTP provider's quota; rows are claimed by priority,
+ * so contact mail still goes out first.
+ */
+@Service
+public class EmailOutboxWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    private static final String CLAIM_SQL =
+        "SELECT id, recipient, subject, body, attempts, created_at FROM email_outbox " +
+        "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ? " +
+        "ORDER BY priority DESC, next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int PURGE_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JavaMailSenderImpl mailSender;
+    private final String fromEmail;
+
+    private final int threads;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    // Token bucket for sends: the time the next permit becomes free; 0 interval means unlimited
+    private final long sendIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextSendSlot;
+
+    // Released after commits that queued mail, so idle workers don't wait out the poll interval
+    private final Semaphore wakeups = new Semaphore(0);
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Timer deliveryLatency;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+
+    public EmailOutboxWorker(JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.mail.username}") String fromEmail,
+                             @Value("${email.outbox.threads:2}") int threads,
+                             @Value("${email.outbox.batch-size:20}") int batchSize,
+                             @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                             @Value("${email.outbox.poll-interval-ms:5000}") long pollIntervalMs,
+                             @Value("${email.outbox.lease:PT5M}") Duration lease,
+                             @Value("${email.outbox.base-backoff:PT30S}") Duration baseBackoff,
+                             @Value("${email.outbox.max-backoff:PT6H}") Duration maxBackoff,
+                             @Value("${email.outbox.retention:P7D}") Duration retention,
+                             @Value("${email.outbox.max-per-second:5}") int maxPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mailSender = mailSender;
+        this.fromEmail = fromEmail;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lease = lease;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.sendIntervalNanos = maxPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxPerSecond : 0;
+        this.burstNanos = TimeUnit.SECONDS.toNanos(1);
+        this.nextSendSlot = new AtomicLong(System.nanoTime() - burstNanos);
+
+        this.sent = Counter.builder("email.outbox.deliveries").tag("outcome", "sent")
+            .register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.deliveries").tag("outcome", "retry")
+            .register(meterRegistry);
+        this.dead = Counter.builder("email.outbox.deliveries").tag("outcome", "dead")
+            .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("email.outbox.delivery.latency")
+            .description("Time from queueing an email to the SMTP server accepting it")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+            .description("Emails not yet delivered or dead-lettered")
+            .register(meterRegistry);
+        Gauge.builder("email.outbox.lag.seconds", lagSeconds, AtomicLong::get)
+            .description("How long the oldest due email has been waiting for a worker")
+            .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        if (wakeups.availablePermits() < threads) {
+            wakeups.release(Math.min(event.getCount(), threads));
+        }
+    }
+
+    // ---- workers ----
+
+    private record OutboxMessage(long id, String recipient, String subject, String body,
+                                 int attempts, LocalDateTime createdAt) {}
+
+    private void runWorker() {
+        Transport transport = null;
+        try {
+            while (running) {
+                List<OutboxMessage> batch;
+                try {
+                    batch = claim();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to claim outbox rows", e);
+                    batch = List.of();
+                }
+                if (batch.isEmpty()) {
+                    // Nothing to do: don't hold the SMTP connection while idle
+                    transport = close(transport);
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                long handBackAt = System.nanoTime() + lease.toNanos() / 2;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (System.nanoTime() - handBackAt > 0) {
+                        release(batch.subList(i, batch.size()));
+                        break;
+                    }
+                    awaitSendPermit();
+                    transport = deliver(batch.get(i), transport);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(transport);
+        }
+    }
+
+    private void awaitSendPermit() throws InterruptedException {
+        if (sendIntervalNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        // Reserve the next slot; slots left unused for more than a second don't pile up
+        long reserved = nextSendSlot.getAndAccumulate(now,
+            (next, t) -> Math.max(next, t - burstNanos) + sendIntervalNanos);
+        long waitNanos = Math.max(reserved, now - burstNanos) - now;
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private List<OutboxMessage> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> batch = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new OutboxMessage(
+                rs.getLong("id"),
+                rs.getString("recipient"),
+                rs.getString("subject"),
+                rs.getString("body"),
+                rs.getInt("attempts") + 1,
+                rs.getTimestamp("created_at").toLocalDateTime()
+            ), Timestamp.valueOf(now), batchSize);
+            if (!batch.isEmpty()) {
+                namedJdbcTemplate.update(
+                    "UPDATE email_outbox SET status = 'SENDING', attempts = attempts + 1, next_attempt_at = :leaseEnd " +
+                    "WHERE id IN (:ids)",
+                    Map.of("leaseEnd", Timestamp.valueOf(now.plus(lease)),
+                           "ids", batch.stream().map(OutboxMessage::id).toList()));
+            }
+            return batch;
+        });
+    }
+
+    // Unsent rows of a slow batch go back to PENDING now, before another worker's claim could race us
+    private void release(List<OutboxMessage> unsent) {
+        log.info("SMTP is slow, handing {} claimed emails back to the outbox", unsent.size());
+        try {
+            namedJdbcTemplate.update(
+                "UPDATE email_outbox SET status = 'PENDING', attempts = attempts - 1, next_attempt_at = :now " +
+                "WHERE id IN (:ids) AND status = 'SENDING'",
+                Map.of("now", Timestamp.valueOf(LocalDateTime.now()),
+                       "ids", unsent.stream().map(OutboxMessage::id).toList()));
+        } catch (RuntimeException e) {
+            // They come back anyway once the lease ends
+            log.warn("Failed to release outbox rows", e);
+        }
+    }
+
+    private Transport deliver(OutboxMessage message, Transport transport) {
+        try {
+            MimeMessage mime = toMime(message);
+            if (transport == null || !transport.isConnected()) {
+                transport = connect();
+            }
+            transport.sendMessage(mime, mime.getAllRecipients());
+        } catch (AddressException e) {
+            fail(message, e, true);
+            return transport;
+        } catch (SendFailedException e) {
+            // The server refused the recipient; a retry will get the same answer
+            boolean rejected = e.getInvalidAddresses() != null && e.getInvalidAddresses().length > 0;
+            fail(message, e, rejected);
+            return rejected ? transport : close(transport);
+        } catch (MessagingException | RuntimeException e) {
+            // Connection state is unknown now; start over with a fresh one
+            fail(message, e, false);
+            return close(transport);
+        }
+        jdbcTemplate.update("UPDATE email_outbox SET status = ?, sent_at = ?, last_error = NULL WHERE id = ?",
+            Status.SENT.name(), Timestamp.valueOf(LocalDateTime.now()), message.id());
+        sent.increment();
+        deliveryLatency.record(Duration.between(message.createdAt(), LocalDateTime.now()));
+        return transport;
+    }
+
+    private void fail(OutboxMessage message, Exception e, boolean permanent) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        if (permanent || message.attempts() >= maxAttempts) {
+            log.warn("Giving up on email {} to {} after {} attempts: {}",
+                message.id(), message.recipient(), message.attempts(), error);
+            jdbcTemplate.update("UPDATE email_outbox SET status = ?, last_error = ? WHERE id = ?",
+                Status.DEAD.name(), error, message.id());
+            dead.increment();
+            return;
+        }
+        Duration delay = backoff(message.attempts());
+        log.info("Email {} failed (attempt {}), retrying in {}: {}", message.id(), message.attempts(), delay, error);
+        jdbcTemplate.update("UPDATE email_outbox SET status = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+            Status.PENDING.name(), Timestamp.valueOf(LocalDateTime.now().plus(delay)), error, message.id());
+        retried.increment();
+    }
+
+    // base * 2^(attempt-1), capped, with +-20% jitter so a failed batch doesn't retry in lockstep
+    private Duration backoff(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        long delayMs = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << shift);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (delayMs * jitter));
+    }
+
+    private MimeMessage toMime(OutboxMessage message) throws MessagingException {
+        MimeMessage mime = new MimeMessage(mailSender.getSession());
+        MimeMessageHelper helper = new MimeMessageHelper(mime, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(message.recipient());
+        helper.setSubject(message.subject());
+        helper.setText(message.body());
+        mime.saveChanges();
+        return mime;
+    }
+
+    private Transport connect() throws MessagingException {
+        Session session = mailSender.getSession();
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport transport = session.getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return transport;
+    }
+
+    private static Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection", e);
+            }
+        }
+        return null;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    // ---- housekeeping ----
+
+    @Scheduled(fixedDelayString = "${email.outbox.metrics-interval-ms:15000}")
+    public void refreshMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        pending.set(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM email_outbox WHERE status IN ('PENDING', 'SENDING')", Long.class));
+        Timestamp oldestDue = jdbcTemplate.queryForObject(
+            "SELECT MIN(next_attempt_at) FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= ?",
+            Timestamp.class, Timestamp.valueOf(now));
+        lagSeconds.set(oldestDue == null ? 0 : Duration.between(oldestDue.toLocalDateTime(), now).toSeconds());
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        int deleted;
+        do {
+            // Small chunks so the purge never holds many row locks at once
+            deleted = jdbcTemplate.update(
+                "DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < ? LIMIT " + PURGE_CHUNK, cutoff);
+        } while (deleted == PURGE_CHUNK);
+    }
+
+    // ---- lifecycle ----
+
+    @Override
+    public void start() {
+        running = true;
+        // Platform threads even with spring.threads.virtual.enabled: Jakarta Mail's SMTPTransport
+        // does its socket I/O inside synchronized methods, which would pin virtual threads
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = new Thread(this::runWorker, "email-outbox-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeups.release(threads);
+        for (Thread worker : workers) {
+            try {
+                // A worker finishes its current batch; unsent rows go back to the pool when their lease ends
+                worker.join(10_000);
+                if (worker.isAlive()) {
+                    worker.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
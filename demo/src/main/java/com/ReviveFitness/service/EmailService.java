@@ -1,29 +1,82 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.event.EmailQueuedEvent;
+import com.ReviveFitness.model.EmailOutbox.Status;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queues outgoing email in the email_outbox table; {@link EmailOutboxWorker} delivers it.
+ *
+ * Callers only pay for one INSERT, and when they are inside a transaction the message is
+ * sent if and only if that transaction commits.
+ */
 @Service
 public class EmailService {
-    
+
+    /** Replies people are waiting for (contact form). */
+    public static final int PRIORITY_HIGH = 10;
+    /** Bulk mail that should never delay the above. */
+    public static final int PRIORITY_BULK = 0;
+
+    // RFC 5322 line limit, and the width of email_outbox.subject
+    private static final int MAX_SUBJECT_LENGTH = 998;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO email_outbox (recipient, subject, body, priority, status, attempts, next_attempt_at, created_at, campaign_id) " +
+        "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
+    /** One rendered message. */
+    public record OutgoingEmail(String to, String subject, String text) {}
 
     @Autowired
-    private JavaMailSender emailSender;
-    
-    @Value("${spring.mail.username}")
-    private String fromEmail;
-    
-    public void sendSimpleMessage(String to, String subject, String text) throws MailException{
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        emailSender.send(message);
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public void queueMessage(String to, String subject, String text, int priority) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Recipient is required");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, to, safeSubject(subject), text == null ? "" : text, priority,
+            Status.PENDING.name(), now, now, null);
+        eventPublisher.publishEvent(new EmailQueuedEvent(1));
+    }
+
+    /**
+     * Queue one page of a campaign with a single JDBC batch, at {@link #PRIORITY_BULK}.
+     * Meant to run in the transaction that also advances the campaign's cursor.
+     */
+    public void queueCampaignMessages(long campaignId, List<OutgoingEmail> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, m) -> {
+            ps.setString(1, m.to());
+            ps.setString(2, safeSubject(m.subject()));
+            ps.setString(3, m.text() == null ? "" : m.text());
+            ps.setInt(4, PRIORITY_BULK);
+            ps.setString(5, Status.PENDING.name());
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+            ps.setLong(8, campaignId);
+        });
+        eventPublisher.publishEvent(new EmailQueuedEvent(messages.size()));
+    }
 
+    private static String safeSubject(String subject) {
+        if (subject == null) {
+            return "";
+        }
+        return subject.length() > MAX_SUBJECT_LENGTH ? subject.substring(0, MAX_SUBJECT_LENGTH) : subject;
     }
 }
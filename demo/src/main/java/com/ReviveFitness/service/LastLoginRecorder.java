@@ -0,0 +1,77 @@
+package com.ReviveFitness.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces last-login timestamps in memory and writes them in one batched UPDATE per table
+ * every auth.last-login.flush-interval-ms, instead of a findById + save on every login.
+ * Only the latest timestamp per id is kept, so a login storm costs one row write per user per interval.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<Long, LocalDateTime> memberLogins = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LocalDateTime> adminLogins = new ConcurrentHashMap<>();
+
+    public void recordMemberLogin(Long memberId) {
+        memberLogins.merge(memberId, LocalDateTime.now(), LastLoginRecorder::latest);
+    }
+
+    public void recordAdminLogin(Long adminId) {
+        adminLogins.merge(adminId, LocalDateTime.now(), LastLoginRecorder::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        flush(memberLogins, "UPDATE members SET last_login = ? WHERE id = ?");
+        flush(adminLogins, "UPDATE admins SET last_login = ? WHERE id = ?");
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void flush(ConcurrentMap<Long, LocalDateTime> pending, String sql) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>();
+        pending.forEach((id, time) -> batch.add(Map.entry(id, time)));
+        try {
+            jdbcTemplate.batchUpdate(sql, batch, batch.size(), (ps, e) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(e.getValue()));
+                ps.setLong(2, e.getKey());
+            });
+        } catch (RuntimeException ex) {
+            // Entries stay in the map and go out with the next flush
+            log.warn("Failed to write {} last-login timestamps", batch.size(), ex);
+            return;
+        }
+        // Only drop what we wrote; a newer login that arrived meanwhile stays queued
+        batch.forEach(e -> pending.remove(e.getKey(), e.getValue()));
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
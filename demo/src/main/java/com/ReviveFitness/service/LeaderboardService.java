@@ -0,0 +1,355 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.LeaderboardDTO;
+import com.ReviveFitness.dto.LeaderboardEntryDTO;
+import com.ReviveFitness.event.AttendanceRemovedEvent;
+import com.ReviveFitness.event.CatalogChangedEvent;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import com.ReviveFitness.event.ChallengeParticipantsChangedEvent;
+import com.ReviveFitness.event.CheckInsRecordedEvent;
+import com.ReviveFitness.model.CheckIn;
+import com.ReviveFitness.model.CurrentChallenge;
+import com.ReviveFitness.repository.CurrentChallengeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-challenge leaderboards: participants ranked by check-ins inside the challenge window.
+ *
+ * A board is built from attendance_logs on first use, then kept in memory as a score map plus
+ * an ordered set, so a check-in is an O(log n) re-rank and a top-N read walks N entries.
+ * Check-ins reach only the boards their member is on, through a member index. Boards are
+ * dropped when participants or the challenge change, and periodically as a safety net, and
+ * rebuilt on the next read.
+ *
+ * A build reads the highest attendance id in the same snapshot as its counts. Check-ins that
+ * arrive while it runs are replayed only for rows past that id, so one the build already
+ * counted is not counted again.
+ */
+@Service
+public class LeaderboardService {
+
+    public static final int MAX_ENTRIES = 100;
+
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final Comparator<Score> RANKING =
+        Comparator.comparingLong(Score::checkIns).reversed().thenComparing(Score::memberId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrentChallengeRepository challengeRepository;
+    private final TransactionTemplate buildTransaction;
+
+    private final ConcurrentMap<Long, Board> boards = new ConcurrentHashMap<>();
+    // Published boards each participant appears on, so a check-in only touches its own boards
+    private final ConcurrentMap<Long, Set<Board>> boardsByMember = new ConcurrentHashMap<>();
+    // Boards whose build query is running; they buffer every delta until they are published
+    private final Set<Board> loading = ConcurrentHashMap.newKeySet();
+
+    public LeaderboardService(JdbcTemplate jdbcTemplate, CurrentChallengeRepository challengeRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.challengeRepository = challengeRepository;
+        // One snapshot for the read point and the counts
+        this.buildTransaction = new TransactionTemplate(transactionManager);
+        this.buildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.buildTransaction.setReadOnly(true);
+    }
+
+    public LeaderboardDTO getLeaderboard(Long challengeId, int limit) {
+        Board board = boards.get(challengeId);
+        if (board == null) {
+            Board fresh = newBoard(challengeId);
+            Board raced = boards.putIfAbsent(challengeId, fresh);
+            if (raced == null) {
+                load(fresh);
+                board = fresh;
+            } else {
+                // Someone else is building it; wait for theirs instead of running the query twice
+                board = raced;
+            }
+        }
+        return board.top(Math.max(1, Math.min(limit, MAX_ENTRIES)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckIns(CheckInsRecordedEvent event) {
+        for (CheckIn checkIn : event.getCheckIns()) {
+            for (Board board : boardsFor(checkIn.getMemberId())) {
+                board.add(checkIn.getMemberId(), checkIn.getCheckInTime(), checkIn.getAttendanceId(), 1);
+            }
+        }
+    }
+
+    // No id: a removal that arrives mid-build almost always committed after the build's snapshot
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttendanceRemoved(AttendanceRemovedEvent event) {
+        for (Board board : boardsFor(event.getMemberId())) {
+            board.add(event.getMemberId(), event.getCheckInTime(), null, -1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParticipantsChanged(ChallengeParticipantsChangedEvent event) {
+        drop(event.getChallengeId());
+    }
+
+    // Window or deletion of a challenge
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getSection() == Section.CHALLENGES) {
+            drop(event.getId());
+        }
+    }
+
+    // Safety net for drift: a check-in that got its id before a build's snapshot but committed
+    // after it, or a removal committed just before the snapshot, is off by one until the next rebuild
+    @Scheduled(fixedDelayString = "${challenge.leaderboard.refresh-ms:600000}")
+    public void expireBoards() {
+        for (Long challengeId : boards.keySet()) {
+            drop(challengeId);
+        }
+    }
+
+    private Set<Board> boardsFor(Long memberId) {
+        Set<Board> indexed = boardsByMember.getOrDefault(memberId, Set.of());
+        if (loading.isEmpty()) {
+            return indexed;
+        }
+        // A board moves from loading to the index; the set keeps one delivery while it is in both
+        Set<Board> targets = new HashSet<>(loading);
+        targets.addAll(indexed);
+        return targets;
+    }
+
+    private void drop(Long challengeId) {
+        Board board = boards.remove(challengeId);
+        if (board != null) {
+            unindex(board);
+        }
+    }
+
+    private void index(Board board) {
+        for (Long memberId : board.memberIds()) {
+            boardsByMember.compute(memberId, (id, set) -> {
+                Set<Board> boardsOfMember = set != null ? set : ConcurrentHashMap.newKeySet();
+                boardsOfMember.add(board);
+                return boardsOfMember;
+            });
+        }
+    }
+
+    private void unindex(Board board) {
+        for (Long memberId : board.memberIds()) {
+            boardsByMember.computeIfPresent(memberId, (id, set) -> {
+                set.remove(board);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private Board newBoard(Long challengeId) {
+        CurrentChallenge challenge = challengeRepository.findById(challengeId)
+            .orElseThrow(() -> new EntityNotFoundException("Challenge not found"));
+        LocalDate startDate = challenge.getStartDate();
+        LocalDate endDate = challenge.getEndDate();
+        return new Board(challengeId, challenge.getParticipantCount(), startDate, endDate,
+            startDate != null ? startDate.atStartOfDay() : OPEN_START,
+            endDate != null ? endDate.plusDays(1).atStartOfDay() : OPEN_END);
+    }
+
+    /**
+     * Fill a board that is already in {@code boards}. Check-ins recorded while the query runs are
+     * buffered on the board and applied when it is published, so none are lost to the build.
+     */
+    private void load(Board board) {
+        loading.add(board);
+        try {
+            long readUpTo = buildTransaction.execute(status -> query(board));
+            index(board);
+            board.publish(readUpTo);
+        } catch (RuntimeException e) {
+            boards.remove(board.challengeId, board);
+            board.fail(e);
+            throw e;
+        } finally {
+            loading.remove(board);
+        }
+        // Dropped while we were indexing: take back whatever the drop couldn't see
+        if (boards.get(board.challengeId) != board) {
+            unindex(board);
+        }
+    }
+
+    // Returns the highest attendance id the counts can include
+    private long query(Board board) {
+        Long readUpTo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM attendance_logs", Long.class);
+        // Every participant, including those with no check-ins yet; walks idx_attendance_member_time
+        jdbcTemplate.query(
+            "SELECT mc.member_id, m.name, COUNT(a.id) FROM member_challenges mc " +
+            "JOIN members m ON m.id = mc.member_id " +
+            "LEFT JOIN attendance_logs a ON a.member_id = mc.member_id " +
+            "AND a.check_in_time >= ? AND a.check_in_time < ? " +
+            "WHERE mc.challenge_id = ? GROUP BY mc.member_id, m.name",
+            (RowCallbackHandler) rs -> board.put(new Score(rs.getLong(1), rs.getString(2), rs.getLong(3))),
+            Timestamp.valueOf(board.from), Timestamp.valueOf(board.to), board.challengeId);
+        return readUpTo;
+    }
+
+    private record Score(long memberId, String name, long checkIns) {}
+
+    private record Delta(Long memberId, LocalDateTime checkInTime, Long attendanceId, long delta) {}
+
+    private static final class Board {
+        private final Long challengeId;
+        private final int participantCount;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Score> scores = new HashMap<>();
+        private final TreeSet<Score> ranking = new TreeSet<>(RANKING);
+        // Non-null until published: deltas that arrive while the build query runs
+        private List<Delta> pending = new ArrayList<>();
+        private final CompletableFuture<Void> published = new CompletableFuture<>();
+
+        Board(Long challengeId, int participantCount, LocalDate startDate, LocalDate endDate,
+              LocalDateTime from, LocalDateTime to) {
+            this.challengeId = challengeId;
+            this.participantCount = participantCount;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.from = from;
+            this.to = to;
+        }
+
+        void put(Score score) {
+            lock.lock();
+            try {
+                scores.put(score.memberId(), score);
+                ranking.add(score);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(Long memberId, LocalDateTime checkInTime, Long attendanceId, long delta) {
+            if (checkInTime == null || checkInTime.isBefore(from) || !checkInTime.isBefore(to)) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (pending != null) {
+                    pending.add(new Delta(memberId, checkInTime, attendanceId, delta));
+                } else {
+                    apply(memberId, delta);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Check-ins up to readUpTo are already in the counts
+        void publish(long readUpTo) {
+            lock.lock();
+            try {
+                for (Delta d : pending) {
+                    if (d.attendanceId() == null || d.attendanceId() > readUpTo) {
+                        apply(d.memberId(), d.delta());
+                    }
+                }
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+            published.complete(null);
+        }
+
+        void fail(RuntimeException e) {
+            published.completeExceptionally(e);
+        }
+
+        List<Long> memberIds() {
+            lock.lock();
+            try {
+                return List.copyOf(scores.keySet());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds the lock
+        private void apply(Long memberId, long delta) {
+            Score old = scores.get(memberId);
+            if (old == null) {
+                return;
+            }
+            Score updated = new Score(memberId, old.name(), Math.max(0, old.checkIns() + delta));
+            ranking.remove(old);
+            ranking.add(updated);
+            scores.put(memberId, updated);
+        }
+
+        LeaderboardDTO top(int limit) {
+            awaitPublished();
+            List<LeaderboardEntryDTO> entries = new ArrayList<>();
+            lock.lock();
+            try {
+                // Standard competition ranking: ties share a rank, the next rank skips
+                int rank = 0;
+                long previous = -1;
+                for (Score score : ranking) {
+                    if (entries.size() == limit) {
+                        break;
+                    }
+                    if (score.checkIns() != previous) {
+                        rank = entries.size() + 1;
+                        previous = score.checkIns();
+                    }
+                    entries.add(new LeaderboardEntryDTO(rank, score.memberId(), score.name(), score.checkIns()));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return new LeaderboardDTO(challengeId, participantCount, startDate, endDate, entries);
+        }
+
+        private void awaitPublished() {
+            try {
+                published.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ReviveFitness.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A plain-text template with {{placeholder}}s, parsed once and rendered many times.
+ *
+ * Values that are the same for every message (e.g. the challenge title) are filled in at
+ * compile time; rendering a recipient then only appends literals and that recipient's fields.
+ */
+public final class MailTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+
+    // literals.length == fields.length + 1; the output is literals[0] fields[0] literals[1] ...
+    private final String[] literals;
+    private final String[] fields;
+    private final int literalLength;
+
+    private MailTemplate(String[] literals, String[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param fixed          values substituted now
+     * @param recipientKeys  placeholders left for {@link #render}
+     * @throws IllegalArgumentException for a placeholder that is in neither
+     */
+    public static MailTemplate compile(String source, Map<String, String> fixed, Set<String> recipientKeys) {
+        List<String> literals = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        Matcher m = PLACEHOLDER.matcher(source);
+        int last = 0;
+        while (m.find()) {
+            literal.append(source, last, m.start());
+            String key = m.group(1);
+            if (fixed.containsKey(key)) {
+                literal.append(fixed.get(key));
+            } else if (recipientKeys.contains(key)) {
+                literals.add(literal.toString());
+                fields.add(key);
+                literal.setLength(0);
+            } else {
+                throw new IllegalArgumentException("Unknown placeholder {{" + key + "}}");
+            }
+            last = m.end();
+        }
+        literal.append(source, last, source.length());
+        literals.add(literal.toString());
+        return new MailTemplate(literals.toArray(String[]::new), fields.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literalLength + fields.length * 16);
+        out.append(literals[0]);
+        for (int i = 0; i < fields.length; i++) {
+            String value = values.get(fields[i]);
+            if (value != null) {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.CurrentChallengeDTO;
+import com.ReviveFitness.dto.MemberDTO;
+import com.ReviveFitness.dto.MemberHomeDTO;
+import com.ReviveFitness.exception.ServiceBusyException;
+import com.ReviveFitness.model.CurrentChallenge;
+import com.ReviveFitness.model.Member;
+import com.ReviveFitness.repository.CurrentChallengeRepository;
+import com.ReviveFitness.repository.MemberRepository;
+import com.ReviveFitness.repository.ProgramRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Everything the member dashboard shows after login, in one call.
+ *
+ * The parts are independent queries, so they run at the same time on virtual threads and the
+ * call takes about as long as the slowest one. Each part has its own timeout
+ * (member.home.part-timeout); a part that fails or times out is left out and listed in
+ * {@code unavailable}, except the profile, without which there is nothing to show.
+ *
+ * Virtual threads are unbounded but connections are not: at most
+ * member.home.max-concurrent-queries parts (by default half the connection pool) hold a
+ * connection at once, so a burst of logins can't starve check-ins. Each part runs in a
+ * transaction with the part timeout, which Spring applies as the JDBC query timeout, so a
+ * part that times out also has its query cancelled instead of holding the connection.
+ */
+@Service
+public class MemberHomeService {
+
+    private static final Logger log = LoggerFactory.getLogger(MemberHomeService.class);
+
+    private static final int HOME_LIST_SIZE = 100;
+    private static final int RECENT_ATTENDANCE = 10;
+
+    private final MemberRepository memberRepository;
+    private final ProgramRepository programRepository;
+    private final CurrentChallengeRepository challengeRepository;
+    private final CurrentChallengeService currentChallengeService;
+    private final AttendanceService attendanceService;
+    private final long partTimeoutMs;
+    private final Semaphore queryPermits;
+    private final TransactionTemplate partTransaction;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public MemberHomeService(MemberRepository memberRepository,
+                             ProgramRepository programRepository,
+                             CurrentChallengeRepository challengeRepository,
+                             CurrentChallengeService currentChallengeService,
+                             AttendanceService attendanceService,
+                             DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${member.home.part-timeout:PT2S}") Duration partTimeout,
+                             @Value("${member.home.max-concurrent-queries:0}") int maxConcurrentQueries) {
+        this.memberRepository = memberRepository;
+        this.programRepository = programRepository;
+        this.challengeRepository = challengeRepository;
+        this.currentChallengeService = currentChallengeService;
+        this.attendanceService = attendanceService;
+        this.partTimeoutMs = partTimeout.toMillis();
+        this.queryPermits = new Semaphore(maxConcurrentQueries > 0
+            ? maxConcurrentQueries : Math.max(1, poolSize(dataSource) / 2));
+        this.partTransaction = new TransactionTemplate(transactionManager);
+        // Whole seconds only; round up so the query isn't cancelled before the part gives up on it
+        this.partTransaction.setTimeout((int) Math.max(1, (partTimeoutMs + 999) / 1000));
+    }
+
+    public MemberHomeDTO getHome(Long memberId) {
+        PageRequest firstPage = PageRequest.of(0, HOME_LIST_SIZE);
+        var profile = part(() -> memberRepository.findById(memberId)
+            .orElseThrow(() -> new EntityNotFoundException("Member not found")));
+        var programs = part(() -> programRepository.findDtosByMemberId(memberId, firstPage));
+        var challenges = part(() -> challengeRepository.findDtosByMemberId(memberId, firstPage));
+        // May choose the active challenge; that suspends the part transaction, see chooseActiveChallenge
+        var current = part(() -> toDTO(currentChallengeService.getOrCreateCurrentChallenge()));
+        var attendance = part(() -> attendanceService.getAttendanceByMemberId(
+            memberId, null, null, null, RECENT_ATTENDANCE));
+
+        Member member = required(profile);
+        List<String> unavailable = new ArrayList<>();
+        MemberHomeDTO home = new MemberHomeDTO();
+        home.setProfile(new MemberDTO(member.getId(), member.getName(), member.getEmail(), member.getJoinDate()));
+        home.setProfilePhotoUrl(member.getProfilePhotoUrl());
+        home.setPrograms(optional("programs", programs, unavailable));
+        home.setChallenges(optional("challenges", challenges, unavailable));
+        home.setCurrentChallenge(optional("currentChallenge", current, unavailable));
+        home.setRecentAttendance(optional("recentAttendance", attendance, unavailable));
+        home.setUnavailable(unavailable);
+        return home;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // A timed-out part stops being waited for at once; its query is cancelled by the query timeout
+    private <T> CompletableFuture<T> part(Supplier<T> query) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+        return CompletableFuture.supplyAsync(() -> withConnectionPermit(query, deadline), executor)
+            .orTimeout(partTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Waiting for a permit counts against the part's timeout; past it nobody wants the result
+    private <T> T withConnectionPermit(Supplier<T> query, long deadline) {
+        try {
+            if (!queryPermits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new ServiceBusyException("Too many member home queries, please retry", 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted waiting for a member home query", 1);
+        }
+        try {
+            return partTransaction.execute(status -> query.get());
+        } finally {
+            queryPermits.release();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+    }
+
+    private static <T> T required(CompletableFuture<T> part) {
+        try {
+            return part.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ServiceBusyException("Member profile timed out, please retry", 1);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T optional(String name, CompletableFuture<T> part, List<String> unavailable) {
+        try {
+            return part.join();
+        } catch (CompletionException e) {
+            log.warn("Member home part '{}' unavailable: {}", name, e.getCause().toString());
+            unavailable.add(name);
+            return null;
+        }
+    }
+
+    private static CurrentChallengeDTO toDTO(CurrentChallenge challenge) {
+        return new CurrentChallengeDTO(
+            challenge.getId(), challenge.getTitle(), challenge.getDescription(), challenge.getImageUrl());
+    }
+}
@@ -1,8 +1,10 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.dto.BulkEnrollmentResultDTO;
+import com.ReviveFitness.dto.CurrentChallengeDTO;
+import com.ReviveFitness.dto.ProgramDTO;
+import com.ReviveFitness.event.ChallengeParticipantsChangedEvent;
 import com.ReviveFitness.model.Member;
-import com.ReviveFitness.model.Program;
-import com.ReviveFitness.model.CurrentChallenge;
 import com.ReviveFitness.repository.MemberRepository;
 import com.ReviveFitness.repository.ProgramRepository;
 import com.ReviveFitness.repository.CurrentChallengeRepository;
@@ -11,19 +13,36 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class MemberService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BULK_ENROLLMENT = 5000;
+
+    private static final int INSERT_CHUNK = 500;
+    private static final JoinTable PROGRAMS = new JoinTable("member_programs", "member_id", "program_id");
+    private static final JoinTable CHALLENGES = new JoinTable("member_challenges", "challenge_id", "member_id");
+
     @Autowired
     private MemberRepository memberRepo;
 
@@ -33,97 +52,224 @@ public class MemberService {
     @Autowired
     private CurrentChallengeRepository challengeRepo;
 
-    @Transactional
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PhotoStorageService photoStorage;
+
+    @Autowired
+    private PhotoVariantService photoVariants;
+
+    // Insert-if-absent straight into the join table; repeat enrollments are no-ops
     public void enrollInProgram(Long memberId, Long programId) {
-        Member m = memberRepo.findById(memberId)
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
-        Program p = programRepo.findById(programId)
-            .orElseThrow(() -> new EntityNotFoundException("Program not found"));
-        m.getPrograms().add(p);
-        memberRepo.save(m);
+        if (insertPairs(PROGRAMS, memberId, List.of(programId)) == 0) {
+            requireExists("members", memberId, "Member not found");
+            requireExists("programs", programId, "Program not found");
+        }
     }
 
-    @Transactional
     public void leaveProgram(Long memberId, Long programId) {
-        Member m = memberRepo.findById(memberId)
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
-        Program p = programRepo.findById(programId)
-            .orElseThrow(() -> new EntityNotFoundException("Program not found"));
-        m.getPrograms().remove(p);
-        memberRepo.save(m);
+        int removed = jdbcTemplate.update(
+            "DELETE FROM member_programs WHERE member_id = ? AND program_id = ?", memberId, programId);
+        if (removed == 0) {
+            requireExists("members", memberId, "Member not found");
+            requireExists("programs", programId, "Program not found");
+        }
     }
 
-    @Transactional
-    public List<Program> getMemberPrograms(Long memberId) {
-        return memberRepo.findById(memberId)
-            .map(mem -> new ArrayList<>(mem.getPrograms()))
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
+    /**
+     * One page of the member's programs, read as DTOs in a single query.
+     */
+    public List<ProgramDTO> getMemberPrograms(Long memberId, int page, int size) {
+        List<ProgramDTO> programs = programRepo.findDtosByMemberId(memberId, pageOf(page, size));
+        requireMemberIfEmpty(memberId, programs);
+        return programs;
     }
 
     @Transactional
     public void joinChallenge(Long memberId, Long challengeId) {
-        Member m = memberRepo.findById(memberId)
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
-        CurrentChallenge c = challengeRepo.findById(challengeId)
-            .orElseThrow(() -> new EntityNotFoundException("Challenge not found"));
-        m.getChallenges().add(c);
-        memberRepo.save(m);
+        if (insertPairs(CHALLENGES, challengeId, List.of(memberId)) == 0) {
+            requireExists("members", memberId, "Member not found");
+            requireExists("current_challenges", challengeId, "Challenge not found");
+            return;
+        }
+        adjustParticipantCount(challengeId, 1);
     }
 
     @Transactional
     public void leaveChallenge(Long memberId, Long challengeId) {
-        Member m = memberRepo.findById(memberId)
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
-        CurrentChallenge c = challengeRepo.findById(challengeId)
-            .orElseThrow(() -> new EntityNotFoundException("Challenge not found"));
-        m.getChallenges().remove(c);
-        memberRepo.save(m);
+        int removed = jdbcTemplate.update(
+            "DELETE FROM member_challenges WHERE member_id = ? AND challenge_id = ?", memberId, challengeId);
+        if (removed == 0) {
+            requireExists("members", memberId, "Member not found");
+            requireExists("current_challenges", challengeId, "Challenge not found");
+            return;
+        }
+        adjustParticipantCount(challengeId, -1);
     }
 
+    /**
+     * Enroll many members in one challenge. Unknown member ids are skipped and reported;
+     * members already in the challenge are left as they are.
+     */
     @Transactional
-    public List<CurrentChallenge> getMemberChallenges(Long memberId) {
-        return memberRepo.findById(memberId)
-            .map(mem -> new ArrayList<>(mem.getChallenges()))
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
+    public BulkEnrollmentResultDTO enrollMembersInChallenge(Long challengeId, List<Long> memberIds) {
+        requireExists("current_challenges", challengeId, "Challenge not found");
+        BulkEnrollmentResultDTO result = bulkInsert(CHALLENGES, challengeId, memberIds, "members");
+        if (result.getAdded() > 0) {
+            adjustParticipantCount(challengeId, result.getAdded());
+        }
+        return result;
     }
 
     /**
-     * Save an uploaded profile photo file and update the Member.
-     * Returns a URL (or path) that clients can use.
+     * Enroll one member in many programs. Unknown program ids are skipped and reported.
      */
     @Transactional
+    public BulkEnrollmentResultDTO enrollMemberInPrograms(Long memberId, List<Long> programIds) {
+        requireExists("members", memberId, "Member not found");
+        return bulkInsert(PROGRAMS, memberId, programIds, "programs");
+    }
+
+    /**
+     * One page of the member's challenges, read as DTOs in a single query.
+     */
+    public List<CurrentChallengeDTO> getMemberChallenges(Long memberId, int page, int size) {
+        List<CurrentChallengeDTO> challenges = challengeRepo.findDtosByMemberId(memberId, pageOf(page, size));
+        requireMemberIfEmpty(memberId, challenges);
+        return challenges;
+    }
+
+    private static PageRequest pageOf(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    // An empty page is ambiguous: keep answering 404 for members that don't exist
+    private void requireMemberIfEmpty(Long memberId, List<?> page) {
+        if (page.isEmpty() && !memberRepo.existsById(memberId)) {
+            throw new EntityNotFoundException("Member not found");
+        }
+    }
+
+    /**
+     * Store an uploaded profile photo and point the member at it.
+     * Returns the URL clients can load it from. No transaction is held while the file is written.
+     */
     public String saveProfilePhoto(Long memberId, MultipartFile file) {
-        Member m = memberRepo.findById(memberId)
-            .orElseThrow(() -> new EntityNotFoundException("Member not found"));
-
-        String filename = "member-" + memberId + "-" + file.getOriginalFilename();
-        File dest = new File("uploads/" + filename);
-        try {
-            dest.getParentFile().mkdirs();
-            file.transferTo(dest);
+        requireExists("members", memberId, "Member not found");
+
+        String name;
+        try (InputStream in = file.getInputStream()) {
+            name = photoStorage.store(in);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to store file", e);
+            throw new UncheckedIOException("Failed to store file", e);
         }
 
-        String url = "/uploads/" + filename;
-        m.setProfilePhotoUrl(url);
-        memberRepo.save(m);
+        // The previous photo is left for PhotoStorageService's sweep once nothing references it
+        String url = PhotoStorageService.urlOf(name);
+        if (jdbcTemplate.update("UPDATE members SET profile_photo_url = ? WHERE id = ?", url, memberId) == 0) {
+            throw new EntityNotFoundException("Member not found");
+        }
+        // Avatar sizes are made in the background; until then ?size= falls back to the original
+        photoVariants.submit(name);
         return url;
     }
+
     public Member authenticate(String email, String rawPassword) {
         Member m = memberRepo.findByEmail(email)
               .orElseThrow(() -> new BadCredentialsException("Invalid email or password"));
 
-        // WARNING: plain-text comparison; swap in BCrypt matches() in prod
-        if (!m.getPassword().equals(rawPassword)) {
+        // BCrypt check on the hashing pool; legacy plain-text rows are rehashed after a successful login
+        String stored = m.getPassword();
+        boolean ok = passwordHasher.verify(rawPassword, stored, hashed -> jdbcTemplate.update(
+            "UPDATE members SET password = ? WHERE id = ? AND password = ?", hashed, m.getId(), stored));
+        if (!ok) {
             throw new BadCredentialsException("Invalid email or password");
         }
         return m;
     }
+    // Written asynchronously in batches by LastLoginRecorder
     public void updateLastLogin(Long memberId) {
-        memberRepo.findById(memberId).ifPresent(m -> {
-            m.setLastLogin(LocalDateTime.now());
-            memberRepo.save(m);
-        });
+        lastLoginRecorder.recordMemberLogin(memberId);
+    }
+
+    // Counters drift only if the join table is edited by hand; recount them on every start
+    @EventListener(ApplicationReadyEvent.class)
+    public void recountChallengeParticipants() {
+        jdbcTemplate.update(
+            "UPDATE current_challenges c SET participant_count = " +
+            "(SELECT COUNT(*) FROM member_challenges mc WHERE mc.challenge_id = c.id)");
     }
+
+    // Same transaction as the join-table write, so the counter never disagrees with the rows
+    private void adjustParticipantCount(Long challengeId, int delta) {
+        jdbcTemplate.update(
+            "UPDATE current_challenges SET participant_count = participant_count + ? WHERE id = ?",
+            delta, challengeId);
+        eventPublisher.publishEvent(new ChallengeParticipantsChangedEvent(challengeId));
+    }
+
+    private BulkEnrollmentResultDTO bulkInsert(JoinTable table, Long ownerId, List<Long> ids, String idTable) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.size() > MAX_BULK_ENROLLMENT) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_ENROLLMENT + " ids per request");
+        }
+        Set<Long> known = new HashSet<>(namedJdbcTemplate.queryForList(
+            "SELECT id FROM " + idTable + " WHERE id IN (:ids)", Map.of("ids", distinct), Long.class));
+        List<Long> valid = new ArrayList<>(known.size());
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : distinct) {
+            (known.contains(id) ? valid : unknown).add(id);
+        }
+        int added = insertPairs(table, ownerId, valid);
+        return new BulkEnrollmentResultDTO(distinct.size(), added, valid.size() - added, unknown);
+    }
+
+    /*
+     * INSERT IGNORE of (owner, other) rows in multi-row statements of up to INSERT_CHUNK rows.
+     * Existing rows (and rows whose ids violate a foreign key) are skipped; returns rows added.
+     */
+    private int insertPairs(JoinTable table, Long ownerId, List<Long> otherIds) {
+        int added = 0;
+        for (int from = 0; from < otherIds.size(); from += INSERT_CHUNK) {
+            List<Long> chunk = otherIds.subList(from, Math.min(from + INSERT_CHUNK, otherIds.size()));
+            StringBuilder sql = new StringBuilder("INSERT IGNORE INTO ").append(table.name)
+                .append(" (").append(table.ownerColumn).append(", ").append(table.otherColumn).append(") VALUES ");
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+                args[2 * i] = ownerId;
+                args[2 * i + 1] = chunk.get(i);
+            }
+            added += jdbcTemplate.update(sql.toString(), args);
+        }
+        return added;
+    }
+
+    private void requireExists(String table, Long id, String message) {
+        Integer found = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+        if (found == null || found == 0) {
+            throw new EntityNotFoundException(message);
+        }
+    }
+
+    // Join tables written directly; columns named from the owner's side
+    private record JoinTable(String name, String ownerColumn, String otherColumn) {}
 }
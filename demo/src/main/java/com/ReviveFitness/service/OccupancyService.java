@@ -0,0 +1,178 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.OccupancyDTO;
+import com.ReviveFitness.event.CheckInsRecordedEvent;
+import com.ReviveFitness.event.CheckOutRecordedEvent;
+import com.ReviveFitness.model.CheckIn;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Live count of members currently in the gym.
+ *
+ * Open sessions live in memory (member id -> check-in time) next to an atomic counter,
+ * so reading the occupancy never touches the database. Sessions close on check-out or
+ * expire after occupancy.session-max. Every change is pushed to connected dashboards over
+ * server-sent events; bursts of changes are coalesced into one push.
+ */
+@Service
+public class OccupancyService {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancyService.class);
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration sessionMax;
+
+    private final ConcurrentMap<Long, LocalDateTime> openSessions = new ConcurrentHashMap<>();
+    private final AtomicInteger occupancy = new AtomicInteger();
+    private volatile LocalDateTime updatedAt = LocalDateTime.now();
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    // Pushes happen off the check-in writer thread so a slow client can't stall ingestion
+    private final ExecutorService pushExecutor;
+    private final AtomicBoolean pushPending = new AtomicBoolean();
+
+    public OccupancyService(JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${occupancy.session-max:PT3H}") Duration sessionMax,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionMax = sessionMax;
+        // Pushes mostly wait on client sockets, which is what virtual threads are for
+        this.pushExecutor = Executors.newSingleThreadExecutor(virtualThreads
+            ? Thread.ofVirtual().name("occupancy-push").factory()
+            : Thread.ofPlatform().name("occupancy-push").daemon().factory());
+        Gauge.builder("gym.occupancy", occupancy, AtomicInteger::get)
+            .description("Members currently checked in")
+            .register(meterRegistry);
+    }
+
+    public OccupancyDTO getOccupancy() {
+        return new OccupancyDTO(occupancy.get(), updatedAt);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        try {
+            emitter.send(SseEmitter.event().name("occupancy").data(getOccupancy()));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+        }
+        return emitter;
+    }
+
+    // Rebuild open sessions after a restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenSessions() {
+        LocalDateTime since = LocalDateTime.now().minus(sessionMax);
+        jdbcTemplate.query(
+            "SELECT member_id, MAX(check_in_time) FROM attendance_logs " +
+            "WHERE check_out_time IS NULL AND check_in_time >= ? GROUP BY member_id",
+            rs -> {
+                if (openSessions.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()) == null) {
+                    occupancy.incrementAndGet();
+                }
+            },
+            Timestamp.valueOf(since));
+        log.info("Loaded {} open gym sessions", occupancy.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckIns(CheckInsRecordedEvent event) {
+        boolean changed = false;
+        for (CheckIn c : event.getCheckIns()) {
+            if (openSessions.put(c.getMemberId(), c.getCheckInTime()) == null) {
+                occupancy.incrementAndGet();
+                changed = true;
+            }
+        }
+        if (changed) {
+            changed();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCheckOut(CheckOutRecordedEvent event) {
+        if (openSessions.remove(event.getMemberId()) != null) {
+            occupancy.decrementAndGet();
+            changed();
+        }
+    }
+
+    // Close sessions nobody checked out of, and keep idle SSE connections alive through proxies
+    @Scheduled(fixedDelay = 30_000)
+    public void expireStaleSessions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(sessionMax);
+        boolean changed = false;
+        for (var entry : openSessions.entrySet()) {
+            if (entry.getValue().isBefore(cutoff) && openSessions.remove(entry.getKey(), entry.getValue())) {
+                occupancy.decrementAndGet();
+                changed = true;
+            }
+        }
+        if (changed) {
+            changed();
+        } else {
+            pushExecutor.execute(() -> broadcast(() -> SseEmitter.event().comment("keep-alive")));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void changed() {
+        updatedAt = LocalDateTime.now();
+        if (pushPending.compareAndSet(false, true)) {
+            pushExecutor.execute(() -> {
+                pushPending.set(false);
+                OccupancyDTO current = getOccupancy();
+                broadcast(() -> SseEmitter.event().name("occupancy").data(current));
+            });
+        }
+    }
+
+    // A fresh builder per emitter: send() builds it, and building the same builder twice appends to it
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
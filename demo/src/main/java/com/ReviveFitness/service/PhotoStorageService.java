@@ -0,0 +1,213 @@
+package com.ReviveFitness.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Profile photos on disk, named by the SHA-256 of their content.
+ *
+ * Uploads are streamed to a temp file while being hashed, then moved into place atomically;
+ * identical photos share one file. Resized variants sit next to the original. Files no
+ * member points at any more are removed by a periodic sweep once they are older than
+ * photos.gc-grace, so a photo that is being uploaded, or was just re-uploaded by someone
+ * else, is never collected.
+ */
+@Service
+public class PhotoStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoStorageService.class);
+
+    public static final String URL_PREFIX = "/api/photos/";
+
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    // Resized copies written by PhotoVariantService: <hash>-<size>.jpg
+    private static final Pattern VARIANT_NAME = Pattern.compile("([0-9a-f]{64})-\\d+\\.jpg");
+    static final String TEMP_PREFIX = "upload-";
+    private static final int HEADER_BYTES = 12;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration gcGrace;
+
+    public PhotoStorageService(JdbcTemplate jdbcTemplate,
+                               @Value("${photos.dir:uploads/photos}") String directory,
+                               @Value("${photos.max-bytes:5242880}") long maxBytes,
+                               @Value("${photos.gc-grace:PT1H}") Duration gcGrace) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = Files.createDirectories(Path.of(directory)).toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.gcGrace = gcGrace;
+    }
+
+    /**
+     * Store an image and return its file name. Only JPEG, PNG, GIF and WebP are accepted,
+     * judged by their leading bytes rather than the client's content type.
+     */
+    public String store(InputStream in) throws IOException {
+        byte[] header = in.readNBytes(HEADER_BYTES);
+        String extension = detectExtension(header)
+            .orElseThrow(() -> new IllegalArgumentException("Only JPEG, PNG, GIF or WebP photos are accepted"));
+
+        MessageDigest sha256 = sha256();
+        Path temp = Files.createTempFile(directory, TEMP_PREFIX, ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                sha256.update(header);
+                writeFully(out, ByteBuffer.wrap(header));
+                long total = header.length;
+                byte[] buffer = new byte[BUFFER_BYTES];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new IllegalArgumentException("Photo is larger than " + maxBytes + " bytes");
+                    }
+                    sha256.update(buffer, 0, read);
+                    writeFully(out, ByteBuffer.wrap(buffer, 0, read));
+                }
+                out.force(false);
+            }
+            String name = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            Path target = directory.resolve(name);
+            if (Files.exists(target)) {
+                try {
+                    // Same content is already stored; refresh its age so the sweep leaves it alone
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    return name;
+                } catch (NoSuchFileException e) {
+                    // Swept in the meantime; store ours below
+                }
+            }
+            // ATOMIC_MOVE replaces the target on POSIX; a concurrent upload of the same bytes is harmless
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            return name;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Path of a stored photo, or empty if the name is not one this service could have produced
+     * or the file is gone. Names are validated, so this never resolves outside the photo directory.
+     */
+    public Optional<Path> resolve(String name) {
+        if (name == null || !STORED_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path path = directory.resolve(name);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Where the {@code size} variant of a stored photo lives (whether or not it exists yet).
+     */
+    public Path variantPath(String name, int size) {
+        if (!STORED_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a stored photo: " + name);
+        }
+        return directory.resolve(hashOf(name) + "-" + size + ".jpg");
+    }
+
+    public static String hashOf(String name) {
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    public static String urlOf(String name) {
+        return URL_PREFIX + name;
+    }
+
+    @Scheduled(fixedDelayString = "${photos.gc-interval-ms:3600000}", initialDelay = 60_000)
+    public void collectGarbage() {
+        // Hashes still in use; an original and its variants live or die together
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query(
+            "SELECT DISTINCT profile_photo_url FROM members WHERE profile_photo_url LIKE ?",
+            rs -> {
+                referenced.add(hashOf(rs.getString(1).substring(URL_PREFIX.length())));
+            },
+            URL_PREFIX + "%");
+
+        Instant cutoff = Instant.now().minus(gcGrace);
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher variant = VARIANT_NAME.matcher(name);
+                boolean collectable = name.startsWith(TEMP_PREFIX)
+                    || (STORED_NAME.matcher(name).matches() && !referenced.contains(hashOf(name)))
+                    || (variant.matches() && !referenced.contains(variant.group(1)));
+                if (collectable && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (removed > 0) {
+            log.info("Removed {} unreferenced photo files", removed);
+        }
+    }
+
+    private static Optional<String> detectExtension(byte[] h) {
+        if (h.length >= 3 && (h[0] & 0xFF) == 0xFF && (h[1] & 0xFF) == 0xD8 && (h[2] & 0xFF) == 0xFF) {
+            return Optional.of("jpg");
+        }
+        if (h.length >= 8 && (h[0] & 0xFF) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G'
+                && h[4] == 0x0D && h[5] == 0x0A && h[6] == 0x1A && h[7] == 0x0A) {
+            return Optional.of("png");
+        }
+        if (h.length >= 6 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8'
+                && (h[4] == '7' || h[4] == '9') && h[5] == 'a') {
+            return Optional.of("gif");
+        }
+        if (h.length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') {
+            return Optional.of("webp");
+        }
+        return Optional.empty();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.ReviveFitness.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Square JPEG variants of profile photos (avatars), made in the background.
+ *
+ * After an upload the original is queued on a small bounded pool, which writes one
+ * <hash>-<size>.jpg per configured size next to it. Reads go through a cache bounded by
+ * total bytes. A variant that isn't there yet (queue was full, old upload, restart) is
+ * queued again on first request, and the caller serves the original meanwhile.
+ *
+ * Only the centre square of an original is decoded, subsampled to about twice the largest
+ * variant, so a large or elongated photo never becomes a full-size bitmap, and nothing that
+ * would still decode to more than photos.variants.max-pixels is decoded at all. Originals that can't be made into variants (no reader, as for WebP, too
+ * large, or corrupt) are remembered, and their requests get the original without new work.
+ */
+@Service
+public class PhotoVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final PhotoStorageService photoStorage;
+    private final int[] sizes;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, byte[]> cache;
+    // Originals queued or being processed, so repeated requests don't queue the same work
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Originals that will never have variants; names are content hashes, so this never goes stale
+    private final Cache<String, Boolean> undecodable;
+    private final long maxPixels;
+
+    public PhotoVariantService(PhotoStorageService photoStorage,
+                               MeterRegistry meterRegistry,
+                               @Value("${photos.variants.sizes:64,128,256}") int[] sizes,
+                               @Value("${photos.variants.threads:2}") int threads,
+                               @Value("${photos.variants.queue-capacity:100}") int queueCapacity,
+                               @Value("${photos.variants.cache-bytes:33554432}") long cacheBytes,
+                               @Value("${photos.variants.max-pixels:100000000}") long maxPixels) {
+        this.photoStorage = photoStorage;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.maxPixels = maxPixels;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread t = new Thread(r, "photo-variants-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(cacheBytes)
+            .weigher((String key, byte[] bytes) -> bytes.length)
+            .build();
+        this.undecodable = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+        // No temp files for ImageIO streams; everything here is small and in memory
+        ImageIO.setUseCache(false);
+
+        Gauge.builder("photos.variants.queue.depth", executor, e -> e.getQueue().size())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue variant generation for a stored photo. Never blocks: when the pool is saturated
+     * the work is dropped and redone on the first request for a variant.
+     */
+    public void submit(String name) {
+        if (undecodable.getIfPresent(name) != null || !pending.add(name)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(name);
+                } finally {
+                    pending.remove(name);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(name);
+            log.debug("Variant pool busy, deferring {}", name);
+        }
+    }
+
+    /**
+     * The configured size closest to {@code requested} from above (or the largest one).
+     */
+    public int pickSize(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * JPEG bytes of a variant produced by {@link #pickSize}, or empty if it hasn't been made yet,
+     * in which case it is queued, or can't be made from this original.
+     */
+    public Optional<byte[]> get(String name, int size) {
+        Path path = photoStorage.variantPath(name, size);
+        String key = path.getFileName().toString();
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!Files.isRegularFile(path)) {
+            submit(name);  // no-op for originals known to be undecodable
+            return Optional.empty();
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            cache.put(key, bytes);
+            return Optional.of(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(String name) {
+        Optional<Path> original = photoStorage.resolve(name);
+        if (original.isEmpty()) {
+            return;
+        }
+        BufferedImage source;
+        try {
+            source = decode(original.get());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot decode {}, serving the original only", name, e);
+            source = null;
+        }
+        if (source == null) {
+            undecodable.put(name, Boolean.TRUE);
+            return;
+        }
+        try {
+            for (int size : sizes) {
+                Path target = photoStorage.variantPath(name, size);
+                if (!Files.exists(target)) {
+                    write(squareThumbnail(source, size), target);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to make variants of {}", name, e);
+        }
+    }
+
+    /**
+     * The centre square of the original, subsampled so its side is still at least twice the
+     * largest variant, or null if no reader handles its format (the JDK has none for WebP) or
+     * it would decode too large. Only the header is read before deciding.
+     */
+    private BufferedImage decode(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.debug("No image reader for {}", original.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // The variants are square crops, so the rest of a long image is never needed
+                int side = Math.min(width, height);
+                int step = Math.max(1, side / (2 * sizes[sizes.length - 1]));
+                long decodedSide = (side + step - 1) / step;
+                if (decodedSide * decodedSide > maxPixels) {
+                    log.info("Not making variants of {}: {}x{} would decode over photos.variants.max-pixels",
+                        original.getFileName(), width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Centre square crop, scaled down in halving steps so small sizes stay sharp
+    private static BufferedImage squareThumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage(
+            (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        int currentSide = side;
+        int target = Math.min(size, side);
+        do {
+            currentSide = Math.max(target, currentSide / 2);
+            current = scale(current, currentSide);
+        } while (currentSide > target);
+        return current;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int side) {
+        // RGB on white: JPEG has no alpha channel
+        BufferedImage scaled = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, side, side);
+            g.drawImage(source, 0, 0, side, side, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), PhotoStorageService.TEMP_PREFIX, ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
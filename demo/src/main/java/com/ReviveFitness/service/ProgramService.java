@@ -1,8 +1,13 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.event.CatalogChangedEvent;
 import com.ReviveFitness.model.Program;
 import com.ReviveFitness.repository.ProgramRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,18 +19,30 @@ public class ProgramService {
     @Autowired
     private ProgramRepository programRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @CacheEvict(value = "programs", allEntries = true)
     public Program createProgram(Program program) {
-        return programRepository.save(program);
+        Program saved = programRepository.save(program);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.PROGRAMS, saved.getId()));
+        return saved;
     }
 
+    @Cacheable("programs")
     public List<Program> getAllPrograms() {
         return programRepository.findAll();
     }
 
+    @Cacheable(value = "program", key = "#id", unless = "#result == null")
     public Optional<Program> getProgramById(Long id) {
         return programRepository.findById(id);
     }
 
+    @Caching(evict = {
+        @CacheEvict(value = "programs", allEntries = true),
+        @CacheEvict(value = "program", key = "#id")
+    })
     public Program updateProgram(Long id, Program programDetails) {
         Program existingProgram = programRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Program not found with id: " + id));
@@ -34,13 +51,20 @@ public class ProgramService {
         existingProgram.setName(programDetails.getName());
         
         existingProgram.setDescription(programDetails.getDescription());
-        return programRepository.save(existingProgram);
+        Program saved = programRepository.save(existingProgram);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.PROGRAMS, id));
+        return saved;
     }
 
+    @Caching(evict = {
+        @CacheEvict(value = "programs", allEntries = true),
+        @CacheEvict(value = "program", key = "#id")
+    })
     public void deleteProgram(Long id) {
         if (!programRepository.existsById(id)) {
             throw new RuntimeException("Program not found with id: " + id);
         }
         programRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.PROGRAMS, id));
     }
 }
\ No newline at end of file
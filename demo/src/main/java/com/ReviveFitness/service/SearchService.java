@@ -0,0 +1,354 @@
+package com.ReviveFitness.service;
+
+import com.ReviveFitness.dto.SearchResultDTO;
+import com.ReviveFitness.event.CatalogChangedEvent;
+import com.ReviveFitness.event.CatalogChangedEvent.Section;
+import com.ReviveFitness.model.Achievement;
+import com.ReviveFitness.model.CurrentChallenge;
+import com.ReviveFitness.model.Program;
+import com.ReviveFitness.model.Trainer;
+import com.ReviveFitness.repository.CurrentChallengeRepository;
+import com.ReviveFitness.repository.ProgramRepository;
+import com.ReviveFitness.repository.TrainerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process full-text index over programs, trainers (with achievements) and challenges.
+ *
+ * Each term maps to its postings (document -> weighted term frequency). The term dictionary
+ * is sorted, which gives prefix matches, and a table of single-character deletions gives
+ * fuzzy matches within one edit. Results are ranked by TF-IDF with per-field weights.
+ * The index is built at startup and then kept current from CatalogChangedEvent, reloading
+ * only the document that changed.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final int MIN_TERM_LENGTH = 2;
+    // Shorter query terms are too ambiguous for fuzzy matching
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int SNIPPET_LENGTH = 160;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 1.5f;
+    private static final float TEXT_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.5f;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    @Autowired
+    private TrainerRepository trainerRepository;
+
+    @Autowired
+    private CurrentChallengeRepository currentChallengeRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<DocKey, Doc> docs = new HashMap<>();
+    private final NavigableMap<String, Map<DocKey, Float>> postings = new TreeMap<>();
+    // Term with one character removed -> terms it came from
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Doc> loaded = new ArrayList<>();
+        programRepository.findAll().forEach(p -> loaded.add(toDoc(p)));
+        trainerRepository.findAllWithAchievements().forEach(t -> loaded.add(toDoc(t)));
+        currentChallengeRepository.findAll().forEach(c -> loaded.add(toDoc(c)));
+
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            postings.clear();
+            deletions.clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built: {} documents, {} terms", loaded.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        DocKey key = new DocKey(event.getSection(), event.getId());
+        try {
+            Optional<Doc> doc = load(key);
+            lock.writeLock().lock();
+            try {
+                remove(key);
+                doc.ifPresent(this::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            // The write itself has committed; a stale entry is fixed by the next change or restart
+            log.warn("Failed to reindex {} {}", key.section(), key.id(), e);
+        }
+    }
+
+    /**
+     * Ranked matches for {@code query}. Each query term matches exactly, as a prefix or within
+     * one edit, in decreasing order of weight; documents matching more of the terms rank higher.
+     *
+     * @param section only this kind of document, or null for all
+     */
+    public List<SearchResultDTO> search(String query, Section section, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        lock.readLock().lock();
+        try {
+            Map<DocKey, Float> scores = new HashMap<>();
+            Map<DocKey, Integer> matchedTerms = new HashMap<>();
+            int docCount = docs.size();
+            for (String term : terms) {
+                Map<DocKey, Float> termScores = new HashMap<>();
+                expand(term).forEach((indexed, factor) -> {
+                    Map<DocKey, Float> posting = postings.get(indexed);
+                    float idf = (float) Math.log(1 + (double) docCount / posting.size());
+                    posting.forEach((key, weight) -> {
+                        if (section == null || key.section() == section) {
+                            termScores.merge(key, weight * idf * factor, Math::max);
+                        }
+                    });
+                });
+                termScores.forEach((key, score) -> {
+                    scores.merge(key, score, Float::sum);
+                    matchedTerms.merge(key, 1, Integer::sum);
+                });
+            }
+
+            // Min-heap holding the best `size` results seen so far
+            PriorityQueue<Map.Entry<DocKey, Float>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            scores.forEach((key, score) -> {
+                float ranked = score * matchedTerms.get(key) / terms.size();
+                if (top.size() < size) {
+                    top.add(Map.entry(key, ranked));
+                } else if (ranked > top.peek().getValue()) {
+                    top.poll();
+                    top.add(Map.entry(key, ranked));
+                }
+            });
+
+            List<SearchResultDTO> results = new ArrayList<>(top.size());
+            for (Map.Entry<DocKey, Float> entry : top) {
+                Doc doc = docs.get(entry.getKey());
+                results.add(new SearchResultDTO(
+                    doc.key().section(), doc.key().id(), doc.title(), doc.snippet(), entry.getValue()));
+            }
+            results.sort(Comparator.comparing(SearchResultDTO::getScore).reversed());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Indexed terms matching a query term, with the factor for how they matched
+    private Map<String, Float> expand(String term) {
+        Map<String, Float> matches = new HashMap<>();
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (String candidate : fuzzyCandidates(term)) {
+                if (withinOneEdit(term, candidate)) {
+                    matches.put(candidate, FUZZY_FACTOR);
+                }
+            }
+        }
+        int expanded = 0;
+        for (String indexed : postings.subMap(term, true, term + Character.MAX_VALUE, false).keySet()) {
+            if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matches.put(indexed, PREFIX_FACTOR);
+        }
+        if (postings.containsKey(term)) {
+            matches.put(term, 1f);
+        }
+        return matches;
+    }
+
+    private Set<String> fuzzyCandidates(String term) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(term, Set.of()));
+        for (int i = 0; i < term.length(); i++) {
+            String deleted = deleteAt(term, i);
+            if (postings.containsKey(deleted)) {
+                candidates.add(deleted);
+            }
+            candidates.addAll(deletions.getOrDefault(deleted, Set.of()));
+        }
+        return candidates;
+    }
+
+    // Callers hold the write lock
+    private void add(Doc doc) {
+        docs.put(doc.key(), doc);
+        doc.terms().forEach((term, weight) -> {
+            Map<DocKey, Float> posting = postings.get(term);
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(term, posting);
+                for (int i = 0; i < term.length(); i++) {
+                    deletions.computeIfAbsent(deleteAt(term, i), d -> new HashSet<>()).add(term);
+                }
+            }
+            posting.put(doc.key(), weight);
+        });
+    }
+
+    private void remove(DocKey key) {
+        Doc old = docs.remove(key);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.terms().keySet()) {
+            Map<DocKey, Float> posting = postings.get(term);
+            posting.remove(key);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                for (int i = 0; i < term.length(); i++) {
+                    String deleted = deleteAt(term, i);
+                    Set<String> sources = deletions.get(deleted);
+                    sources.remove(term);
+                    if (sources.isEmpty()) {
+                        deletions.remove(deleted);
+                    }
+                }
+            }
+        }
+    }
+
+    private Optional<Doc> load(DocKey key) {
+        return switch (key.section()) {
+            case PROGRAMS -> programRepository.findById(key.id()).map(this::toDoc);
+            case TRAINERS -> trainerRepository.findByIdWithAchievements(key.id()).map(this::toDoc);
+            case CHALLENGES -> currentChallengeRepository.findById(key.id()).map(this::toDoc);
+        };
+    }
+
+    private Doc toDoc(Program program) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, program.getName(), TITLE_WEIGHT);
+        addField(terms, program.getBenefits(), TAG_WEIGHT);
+        addField(terms, program.getDescription(), TEXT_WEIGHT);
+        return doc(new DocKey(Section.PROGRAMS, program.getId()), program.getName(), program.getDescription(), terms);
+    }
+
+    private Doc toDoc(Trainer trainer) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, trainer.getName(), TITLE_WEIGHT);
+        addField(terms, trainer.getTitle(), TAG_WEIGHT);
+        if (trainer.getAchievements() != null) {
+            for (Achievement achievement : trainer.getAchievements()) {
+                addField(terms, achievement.getAchievement(), TAG_WEIGHT);
+            }
+        }
+        addField(terms, trainer.getBio(), TEXT_WEIGHT);
+        String snippet = trainer.getTitle() != null ? trainer.getTitle() : trainer.getBio();
+        return doc(new DocKey(Section.TRAINERS, trainer.getId()), trainer.getName(), snippet, terms);
+    }
+
+    private Doc toDoc(CurrentChallenge challenge) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, challenge.getTitle(), TITLE_WEIGHT);
+        addField(terms, challenge.getDescription(), TEXT_WEIGHT);
+        return doc(new DocKey(Section.CHALLENGES, challenge.getId()), challenge.getTitle(),
+            challenge.getDescription(), terms);
+    }
+
+    private static Doc doc(DocKey key, String title, String text, Map<String, Float> terms) {
+        // Square root damps long fields that repeat a term many times
+        terms.replaceAll((term, frequency) -> (float) Math.sqrt(frequency));
+        String snippet = text == null || text.length() <= SNIPPET_LENGTH ? text : text.substring(0, SNIPPET_LENGTH) + "…";
+        return new Doc(key, title, snippet, terms);
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    // Lower-cased, accent-free words of at least MIN_TERM_LENGTH characters
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.length() >= MIN_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String deleteAt(String term, int index) {
+        return term.substring(0, index) + term.substring(index + 1);
+    }
+
+    // Damerau distance <= 1: one insertion, deletion, substitution or adjacent transposition
+    private static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < Math.min(la, lb) && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (la == lb) {
+            if (i == la) {
+                return true;
+            }
+            String restA = a.substring(i + 1);
+            String restB = b.substring(i + 1);
+            if (restA.equals(restB)) {
+                return true;
+            }
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        return la > lb ? a.substring(i + 1).equals(b.substring(i)) : b.substring(i + 1).equals(a.substring(i));
+    }
+
+    private record DocKey(Section section, Long id) {}
+
+    private record Doc(DocKey key, String title, String snippet, Map<String, Float> terms) {}
+}
@@ -1,10 +1,15 @@
 package com.ReviveFitness.service;
 
+import com.ReviveFitness.event.CatalogChangedEvent;
 import com.ReviveFitness.model.Trainer;
 import com.ReviveFitness.model.Achievement;
 import com.ReviveFitness.repository.TrainerRepository;
 import com.ReviveFitness.dto.TrainerDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,15 +24,21 @@ public class TrainerService {
     @Autowired
     private TrainerRepository trainerRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Cacheable("trainers")
     public List<Trainer> getAllTrainers() {
-        return trainerRepository.findAll();
+        return trainerRepository.findAllWithAchievements();
     }
 
+    @Cacheable(value = "trainer", key = "#id", unless = "#result == null")
     public Optional<Trainer> getTrainerById(Long id) {
-        return trainerRepository.findById(id);
+        return trainerRepository.findByIdWithAchievements(id);
     }
 
     @Transactional
+    @CacheEvict(value = "trainers", allEntries = true)
     public Trainer createTrainer(TrainerDTO trainerDTO) {
         Trainer trainer = new Trainer();
         trainer.setName(trainerDTO.getName());
@@ -50,13 +61,18 @@ public class TrainerService {
             trainer.setAchievements(achievements);
             trainer = trainerRepository.save(trainer);
         }
-        
+
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.TRAINERS, trainer.getId()));
         return trainer;
     }
 
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(value = "trainers", allEntries = true),
+        @CacheEvict(value = "trainer", key = "#id")
+    })
     public Trainer updateTrainer(Long id, TrainerDTO trainerDTO) {
-        Trainer trainer = trainerRepository.findById(id)
+        Trainer trainer = trainerRepository.findByIdWithAchievements(id)
                 .orElseThrow(() -> new RuntimeException("Trainer not found with id: " + id));
         
         trainer.setName(trainerDTO.getName());
@@ -81,15 +97,22 @@ public class TrainerService {
             }
         }
         
-        return trainerRepository.save(trainer);
+        Trainer saved = trainerRepository.save(trainer);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.TRAINERS, id));
+        return saved;
     }
 
     @Transactional
+    @Caching(evict = {
+        @CacheEvict(value = "trainers", allEntries = true),
+        @CacheEvict(value = "trainer", key = "#id")
+    })
     public void deleteTrainer(Long id) {
         if (!trainerRepository.existsById(id)) {
             throw new RuntimeException("Trainer not found with id: " + id);
         }
         trainerRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.TRAINERS, id));
     }
 
     public TrainerDTO convertToDTO(Trainer trainer) {
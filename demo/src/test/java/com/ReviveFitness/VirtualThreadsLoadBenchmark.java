@@ -0,0 +1,155 @@
+package com.ReviveFitness;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test for platform vs virtual request threads: throughput and p99 of check-in
+ * (POST /api/attendance) and catalog (GET /api/programs) requests against a running server.
+ *
+ * Run it once per mode against the same database and compare the two reports:
+ *
+ *   java -jar target/revivefitness-backend-*.jar --spring.threads.virtual.enabled=false \
+ *       --attendance.checkin.dedup-window=PT0S
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.ReviveFitness.VirtualThreadsLoadBenchmark \
+ *       -Dload.token=<member JWT> -Dload.members=1-500
+ *
+ * then the same with --spring.threads.virtual.enabled=true. The dedup window is switched off
+ * so every check-in does its full work. Other settings (defaults in brackets): load.url
+ * [http://localhost:8080], load.concurrency [200 callers], load.warmup [PT15S],
+ * load.duration [PT60S], load.checkin-share [0.5]. Run the client on other cores or another
+ * host than the server, or the two compete for CPU.
+ */
+public class VirtualThreadsLoadBenchmark {
+
+    private static final int CHECK_IN = 0;
+    private static final int CATALOG = 1;
+    private static final String[] NAMES = {"POST /api/attendance", "GET /api/programs"};
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8080");
+        String token = System.getProperty("load.token");
+        if (token == null) {
+            throw new IllegalArgumentException("Set -Dload.token to a member JWT (POST /api/members/login)");
+        }
+        String[] members = System.getProperty("load.members", "1-100").split("-");
+        long firstMember = Long.parseLong(members[0].trim());
+        long lastMember = Long.parseLong(members[members.length - 1].trim());
+        int concurrency = Integer.getInteger("load.concurrency", 200);
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        double checkInShare = Double.parseDouble(System.getProperty("load.checkin-share", "0.5"));
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        HttpRequest catalog = HttpRequest.newBuilder(URI.create(url + "/api/programs")).GET().build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureTo = measureFrom + duration.toNanos();
+        System.out.printf("%d callers against %s: %s warm-up, then %s measured%n", concurrency, url, warmup, duration);
+
+        List<Future<Samples[]>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                results.add(callers.submit(() -> {
+                    Samples[] samples = {new Samples(), new Samples()};
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < measureTo) {
+                        int kind = random.nextDouble() < checkInShare ? CHECK_IN : CATALOG;
+                        HttpRequest request = kind == CATALOG ? catalog : checkIn(url, token,
+                            random.nextLong(firstMember, lastMember + 1));
+                        boolean ok;
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            ok = status < 400;
+                        } catch (java.io.IOException e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (now >= measureFrom) {
+                            samples[kind].add(end - now, ok);
+                        }
+                    }
+                    return samples;
+                }));
+            }
+        }
+
+        Samples[] total = {new Samples(), new Samples()};
+        for (Future<Samples[]> result : results) {
+            Samples[] samples = result.get();
+            total[CHECK_IN].addAll(samples[CHECK_IN]);
+            total[CATALOG].addAll(samples[CATALOG]);
+        }
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-22s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        for (int kind : new int[]{CHECK_IN, CATALOG}) {
+            Samples s = total[kind];
+            long[] sorted = s.sorted();
+            System.out.printf("%-22s %9d %7d %9.0f %9.2f %9.2f %9.2f%n", NAMES[kind], sorted.length, s.errors,
+                sorted.length / seconds, millis(sorted, 0.50), millis(sorted, 0.99), millis(sorted, 0.999));
+        }
+    }
+
+    private static HttpRequest checkIn(String url, String token, long memberId) {
+        return HttpRequest.newBuilder(URI.create(url + "/api/attendance"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"memberId\":" + memberId + "}"))
+            .build();
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Latencies of one caller; merged once at the end, so no synchronization
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latencyNanos;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
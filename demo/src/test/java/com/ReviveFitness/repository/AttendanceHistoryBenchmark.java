@@ -0,0 +1,102 @@
+package com.ReviveFitness.repository;
+
+import com.ReviveFitness.model.Attendance;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the member history endpoint's queries as a member's history grows.
+ *
+ * Seeds members with 1k, 10k and 100k check-ins and times the first page and a cursor page
+ * (100 rows each). Both queries walk idx_attendance_member_time, so the median should stay
+ * roughly the same whatever the history size. Not part of the default test run:
+ *
+ *   mvn test -Dtest=AttendanceHistoryBenchmark
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class AttendanceHistoryBenchmark {
+
+    private static final int[] ROWS_PER_MEMBER = {1_000, 10_000, 100_000};
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 1_000;
+
+    private static final LocalDateTime FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void historyPageLatencyStaysFlat() {
+        long[] medians = new long[ROWS_PER_MEMBER.length];
+        for (int i = 0; i < ROWS_PER_MEMBER.length; i++) {
+            long memberId = seedMember(ROWS_PER_MEMBER[i]);
+            long[] nanos = measure(memberId);
+            medians[i] = percentile(nanos, 0.50);
+            System.out.printf("rows/member=%,7d  p50=%6d us  p99=%6d us%n",
+                ROWS_PER_MEMBER[i], medians[i] / 1_000, percentile(nanos, 0.99) / 1_000);
+        }
+        // Generous bound: 100x more rows must not mean more than 3x the latency
+        assertThat(medians[medians.length - 1]).isLessThan(medians[0] * 3 + 1_000_000);
+    }
+
+    private long[] measure(long memberId) {
+        long[] nanos = new long[ITERATIONS];
+        for (int i = -WARMUP; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<Attendance> first = attendanceRepository.findMemberHistory(memberId, FROM, TO, PageRequest.of(0, PAGE_SIZE));
+            Attendance last = first.get(first.size() - 1);
+            List<Attendance> next = attendanceRepository.findMemberHistoryBefore(
+                memberId, FROM, TO, last.getCheckInTime(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+            long elapsed = System.nanoTime() - start;
+            assertThat(next).hasSize(PAGE_SIZE);
+            // Keep the persistence context from growing across iterations
+            entityManager.clear();
+            if (i >= 0) {
+                nanos[i] = elapsed;
+            }
+        }
+        return nanos;
+    }
+
+    private long seedMember(int rows) {
+        jdbcTemplate.update("INSERT INTO members (name, email) VALUES (?, ?)", "Bench " + rows, "bench" + rows + "@example.com");
+        long memberId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM members", Long.class);
+        LocalDateTime start = LocalDateTime.of(2015, 1, 1, 6, 0);
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[] {memberId, Timestamp.valueOf(start.plusHours(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO attendance_logs (member_id, check_in_time) VALUES (?, ?)", batch);
+        return memberId;
+    }
+
+    private static long percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,79 @@
+package com.ReviveFitness.repository;
+
+import com.ReviveFitness.model.Achievement;
+import com.ReviveFitness.model.Trainer;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The trainer listing must load trainers and their achievements in one statement, not one
+ * query for the trainers plus one per trainer for its achievements.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class TrainerRepositoryTest {
+
+    private static final int TRAINERS = 20;
+    private static final int ACHIEVEMENTS_PER_TRAINER = 3;
+
+    @Autowired
+    private TrainerRepository trainerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long firstTrainerId;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < TRAINERS; i++) {
+            Trainer trainer = Trainer.builder().name("Trainer " + i).title("Coach").build();
+            List<Achievement> achievements = new ArrayList<>();
+            for (int j = 0; j < ACHIEVEMENTS_PER_TRAINER; j++) {
+                achievements.add(Achievement.builder().achievement("Award " + j).trainer(trainer).build());
+            }
+            trainer.setAchievements(achievements);
+            entityManager.persist(trainer);
+            if (firstTrainerId == null) {
+                firstTrainerId = trainer.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllWithAchievementsUsesOneStatement() {
+        List<Trainer> trainers = trainerRepository.findAllWithAchievements();
+
+        int achievements = trainers.stream().mapToInt(t -> t.getAchievements().size()).sum();
+        assertThat(trainers).hasSize(TRAINERS);
+        assertThat(achievements).isEqualTo(TRAINERS * ACHIEVEMENTS_PER_TRAINER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdWithAchievementsUsesOneStatement() {
+        Trainer trainer = trainerRepository.findByIdWithAchievements(firstTrainerId).orElseThrow();
+
+        assertThat(trainer.getAchievements()).hasSize(ACHIEVEMENTS_PER_TRAINER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ReviveFitness.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JwtAuthenticationFilter.
+ *
+ * cachedToken is the steady state (the same member token on every request), uncachedToken
+ * forces a full signature check each time (token cache disabled), and publicGet is a catalog
+ * GET that skips verification. Run with:
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtAuthenticationFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter cachingFilter;
+    private JwtAuthenticationFilter verifyingFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        JwtKeyRing keyRing = new JwtKeyRing(secret, "", "", "jwt", Duration.ofDays(1), Duration.ofHours(24));
+        JwtProvider cachingProvider = new JwtProvider(keyRing, Duration.ofHours(24), 10_000);
+        JwtProvider verifyingProvider = new JwtProvider(keyRing, Duration.ofHours(24), 0);
+        token = cachingProvider.generateToken("member@example.com", JwtProvider.ROLE_MEMBER);
+
+        cachingFilter = filterFor(cachingProvider);
+        verifyingFilter = filterFor(verifyingProvider);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void cachedToken(Blackhole bh) throws Exception {
+        run(cachingFilter, authenticatedPost(), bh);
+    }
+
+    @Benchmark
+    public void uncachedToken(Blackhole bh) throws Exception {
+        run(verifyingFilter, authenticatedPost(), bh);
+    }
+
+    @Benchmark
+    public void publicGet(Blackhole bh) throws Exception {
+        run(cachingFilter, new MockHttpServletRequest("GET", "/api/programs"), bh);
+    }
+
+    private MockHttpServletRequest authenticatedPost() {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/api/attendance");
+        req.setServletPath("/api/attendance");
+        req.addHeader("Authorization", "Bearer " + token);
+        return req;
+    }
+
+    private static void run(JwtAuthenticationFilter filter, MockHttpServletRequest req, Blackhole bh) throws Exception {
+        if (req.getServletPath().isEmpty()) {
+            req.setServletPath(req.getRequestURI());
+        }
+        filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private static JwtAuthenticationFilter filterFor(JwtProvider provider) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtProvider", provider);
+        return filter;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ReviveFitness.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login password checks through PasswordHasher, per hashing pool size.
+ *
+ * 16 concurrent callers (roughly a busy Tomcat) verify a BCrypt password against pools of
+ * 1, 2, 4 and 8 threads. loginsPerSecond reports throughput; loginLatency reports the
+ * latency distribution, including p0.99, as seen by the caller (queue wait plus hashing).
+ * Throughput should grow with the pool size until it reaches the number of cores, and stay
+ * flat after that. Run with:
+ *
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath org.openjdk.jmh.Main PasswordHasherBenchmark"
+ */
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHasherBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"1", "2", "4", "8"})
+    public int poolThreads;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        stored = encoder.encode(PASSWORD);
+        // Queue deep enough for every caller so the numbers show hashing, not 503s
+        hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), poolThreads, 64, 60_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean loginsPerSecond() {
+        return hasher.verify(PASSWORD, stored, hashed -> { });
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean loginLatency() {
+        return hasher.verify(PASSWORD, stored, hashed -> { });
+    }
+}